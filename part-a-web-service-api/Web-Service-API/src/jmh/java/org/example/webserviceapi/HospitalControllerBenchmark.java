@@ -0,0 +1,80 @@
+package org.example.webserviceapi;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+
+// F1-F4 through the controller, at 1k, 100k and 1M rows per dataset.
+// "warm" serves every call from the cached snapshot and its views; "cold" downloads, parses and rebuilds the views on every call.
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HospitalControllerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"warm", "cold"})
+    public String cache;
+
+    private HospitalController hospitalController;
+    private String patientID;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticDatasets datasets = new SyntheticDatasets(rows);
+        patientID = Integer.toString(datasets.patientCount() / 2);
+
+        if (cache.equals("cold")) {
+            hospitalController = new HospitalController(changingOnEveryCall(datasets.restTemplate()));
+            hospitalController.setCacheTtlSeconds(0);
+            hospitalController.setCacheMaxStaleSeconds(0);
+        } else {
+            hospitalController = new HospitalController(datasets.restTemplate());
+        }
+    }
+
+    // An unchanged download only revalidates the cached snapshot, so for "cold" each call alternates between the body
+    // and the same body with a trailing space; both are built once, so the calls themselves copy nothing
+    private static RestTemplate changingOnEveryCall(RestTemplate upstream) {
+        Map<String, String> padded = new ConcurrentHashMap<>();
+        Map<String, Boolean> flipped = new ConcurrentHashMap<>();
+
+        return new RestTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> ResponseEntity<T> getForEntity(String url, Class<T> responseType, Object... uriVariables) {
+                ResponseEntity<T> response = upstream.getForEntity(url, responseType, uriVariables);
+                if (response.getBody() == null || !flipped.merge(url, true, (was, ignored) -> !was)) {
+                    return response;
+                }
+                String body = padded.computeIfAbsent(url, key -> response.getBody() + " ");
+                return new ResponseEntity<>((T) body, response.getStatusCode());
+            }
+        };
+    }
+
+    @Benchmark
+    public ResponseEntity<String> f1AdmissionsForPatient() {
+        return hospitalController.getAdmissionsForSpecificPatient(patientID);
+    }
+
+    @Benchmark
+    public ResponseEntity<String> f2CurrentAdmissions() {
+        return hospitalController.getCurrentAdmissions();
+    }
+
+    @Benchmark
+    public ResponseEntity<String> f3EmployeeWithMostAdmissions() {
+        return hospitalController.getEmployeeWithMostAdmissions();
+    }
+
+    @Benchmark
+    public ResponseEntity<String> f4EmployeesWithZeroAdmissions() {
+        return hospitalController.getEmployeesWithZeroAdmissions();
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.webserviceapi;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+// The stages behind F1-F4 on their own: parsing, indexing, aggregating and serialising.
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HospitalJsonBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private SyntheticDatasets datasets;
+    private List<Admission> admissions;
+    private AdmissionColumns admissionColumns;
+    private List<Allocation> allocations;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        datasets = new SyntheticDatasets(rows);
+        admissions = HospitalJson.parseAdmissions(datasets.admissions());
+        admissionColumns = HospitalJson.parseAdmissionColumns(datasets.admissions());
+        allocations = HospitalJson.parseAllocations(datasets.allocations());
+    }
+
+    @Benchmark
+    public List<Admission> parseAdmissions() throws IOException {
+        return HospitalJson.parseAdmissions(datasets.admissions());
+    }
+
+    @Benchmark
+    public AdmissionColumns parseAdmissionColumns() throws IOException {
+        return HospitalJson.parseAdmissionColumns(datasets.admissions());
+    }
+
+    @Benchmark
+    public List<Allocation> parseAllocations() throws IOException {
+        return HospitalJson.parseAllocations(datasets.allocations());
+    }
+
+    @Benchmark
+    public PatientAdmissionsIndex buildPatientAdmissionsIndex() throws IOException {
+        return PatientAdmissionsIndex.build(admissionColumns);
+    }
+
+    @Benchmark
+    public AdmissionIntervalIndex buildAdmissionIntervalIndex() {
+        return AdmissionIntervalIndex.build(admissionColumns);
+    }
+
+    @Benchmark
+    public CurrentAdmissionsView.Delta buildCurrentAdmissionsView() throws IOException {
+        return new CurrentAdmissionsView().advanceTo(1, admissionColumns);
+    }
+
+    @Benchmark
+    public AdmissionCountLeaderboard countAllocations() {
+        return AdmissionCountLeaderboard.build(allocations, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public AdmissionCountLeaderboard countAllocationsInParallel() {
+        return AdmissionCountLeaderboard.build(allocations, 1);
+    }
+
+    @Benchmark
+    public String writeAdmissions() throws IOException {
+        return HospitalJson.writeArray(admissions, HospitalJson::writePatientAdmission);
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.webserviceapi;
+
+
+// An upstream Admissions record. Dates are held as epoch seconds of the upstream local date-time
+// (see HospitalJson), and missing values as HospitalJson.MISSING_ID / HospitalJson.MISSING_TIME.
+// The date texts are only set for a date the upstream wrote in another form than yyyy-MM-ddTHH:mm:ss (fractions of
+// a second, an offset), so it is written back out as it came; the epoch seconds are still what it is compared by.
+// A date that cannot be parsed at all keeps its text with MISSING_TIME as its epoch seconds.
+public record Admission(int id, long admissionDate, long dischargeDate, int patientID,
+                        String admissionDateText, String dischargeDateText) {
+
+    public Admission(int id, long admissionDate, long dischargeDate, int patientID) {
+        this(id, admissionDate, dischargeDate, patientID, null, null);
+    }
+
+    // The upstream writes "0001-01-01T00:00:00" as the discharge date of a patient who is still admitted
+    public static final long NOT_DISCHARGED = HospitalJson.parseTime("0001-01-01T00:00:00");
+
+    public boolean isCurrentlyAdmitted() {
+        return dischargeDate == NOT_DISCHARGED;
+    }
+}
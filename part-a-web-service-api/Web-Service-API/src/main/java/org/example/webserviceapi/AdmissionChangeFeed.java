@@ -0,0 +1,280 @@
+package org.example.webserviceapi;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+// Admissions, discharges and updates between successive Admissions snapshots, as a feed of numbered events for
+// long-lived subscribers. Recent events are kept, so a subscriber that reconnects with the ID of the last event it
+// saw is sent what it missed; one that has missed more than is kept, or whose ID is from an earlier run of the
+// process, is sent a reset event instead and should reload the current admissions.
+//
+// Each subscriber has its own queue, sent from by a pooled thread, so a slow client does not hold up the others. One
+// that falls too far behind is closed and can resume from the kept events when it reconnects.
+public class AdmissionChangeFeed {
+
+    public static final String ADMITTED = "admitted";
+    public static final String DISCHARGED = "discharged";
+    public static final String UPDATED = "updated";
+    public static final String RESET = "reset";
+
+    // Sent to idle subscribers to keep their connection open through proxies and to notice clients that have gone
+    public static final String HEARTBEAT = "heartbeat";
+
+    static final int MAX_PENDING = 1000;
+
+    // Event IDs are only resumable in the process that issued them
+    private final String epoch = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+
+    // Run on every heartbeat while there are subscribers, so the upstream is still checked for changes when
+    // subscribers are the only clients. It runs on a sender thread, one poll at a time, so a slow upstream neither
+    // holds up the heartbeats nor piles up polls.
+    private final Runnable poll;
+
+    private final AtomicBoolean polling = new AtomicBoolean();
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "admission-changes-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile int maxHistory = 10000;
+    private volatile Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    // Guarded by this
+    private final ArrayDeque<Event> history = new ArrayDeque<>();
+    private long lastSequence;
+    private ScheduledExecutorService timer;
+
+    public AdmissionChangeFeed(Runnable poll) {
+        this.poll = poll;
+    }
+
+    public void setMaxHistory(int maxHistory) {
+        this.maxHistory = maxHistory;
+    }
+
+    // Takes effect from the first subscriber on
+    public void setHeartbeatInterval(Duration heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    // A change to one admission; its ID is what a subscriber resumes from. A discharged event carries the admission as
+    // it was last seen open, since the discharge may show up as the row leaving the upstream. Reset events carry none.
+    public record Event(String id, long sequence, String type, long version, Admission admission) {
+    }
+
+    // Numbers the delta's changes as events and queues them for every subscriber
+    public synchronized void publish(CurrentAdmissionsView.Delta delta) {
+        List<Event> events = new ArrayList<>(delta.admitted().size() + delta.discharged().size() + delta.updated().size());
+        for (Admission admission : delta.admitted()) {
+            events.add(nextEvent(ADMITTED, delta.version(), admission));
+        }
+        for (Admission admission : delta.discharged()) {
+            events.add(nextEvent(DISCHARGED, delta.version(), admission));
+        }
+        for (Admission admission : delta.updated()) {
+            events.add(nextEvent(UPDATED, delta.version(), admission));
+        }
+
+        history.addAll(events);
+        while (history.size() > maxHistory) {
+            history.removeFirst();
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.enqueue(events);
+        }
+    }
+
+    private Event nextEvent(String type, long version, Admission admission) {
+        long sequence = ++lastSequence;
+        return new Event(epoch + "-" + sequence, sequence, type, version, admission);
+    }
+
+    // Subscribes from now on, or from just after lastEventId if it is given (null for only new events)
+    public synchronized Subscription subscribe(String lastEventId, EventSink sink) {
+        Subscription subscription = new Subscription(sink);
+        if (lastEventId != null) {
+            subscription.enqueue(missedSince(lastEventId));
+        }
+        subscriptions.add(subscription);
+
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "admission-changes-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = heartbeatInterval.toMillis();
+            timer.scheduleWithFixedDelay(this::heartbeat, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        // A first look at the upstream straight away, rather than at the first heartbeat
+        pollInBackground();
+        return subscription;
+    }
+
+    private List<Event> missedSince(String lastEventId) {
+        long sequence = -1;
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator > 0 && lastEventId.substring(0, separator).equals(epoch)) {
+            try {
+                sequence = Long.parseLong(lastEventId.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                // Not one of ours, so treated like an ID from an earlier run
+            }
+        }
+
+        long oldestKept = history.isEmpty() ? lastSequence + 1 : history.peekFirst().sequence();
+        if (sequence < 0 || sequence > lastSequence || sequence < oldestKept - 1) {
+            return List.of(new Event(epoch + "-" + lastSequence, lastSequence, RESET, -1, null));
+        }
+        List<Event> missed = new ArrayList<>();
+        for (Event event : history) {
+            if (event.sequence() > sequence) {
+                missed.add(event);
+            }
+        }
+        return missed;
+    }
+
+    private void heartbeat() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        Event heartbeat = new Event(null, -1, HEARTBEAT, -1, null);
+        for (Subscription subscription : subscriptions) {
+            subscription.heartbeat(heartbeat);
+        }
+        pollInBackground();
+    }
+
+    // Skipped while the previous poll is still running; that one will see the same changes
+    private void pollInBackground() {
+        if (!polling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> {
+                try {
+                    poll.run();
+                } catch (RuntimeException e) {
+                    // The next heartbeat polls again
+                } finally {
+                    polling.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            polling.set(false);
+        }
+    }
+
+    // Number of open subscriptions
+    public int size() {
+        return subscriptions.size();
+    }
+
+
+    public final class Subscription {
+
+        private final EventSink sink;
+
+        // Guarded by this
+        private final ArrayDeque<Event> pending = new ArrayDeque<>();
+        private boolean sending;
+        private boolean cancelled;
+
+        private Subscription(EventSink sink) {
+            this.sink = sink;
+        }
+
+        private void enqueue(List<Event> events) {
+            if (events.isEmpty()) {
+                return;
+            }
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                if (pending.size() + events.size() <= MAX_PENDING) {
+                    pending.addAll(events);
+                    startSending();
+                    return;
+                }
+            }
+            // Too far behind to catch up; it can resume from the kept events once it reconnects
+            cancel();
+        }
+
+        private synchronized void heartbeat(Event heartbeat) {
+            if (!cancelled && pending.isEmpty() && !sending) {
+                pending.add(heartbeat);
+                startSending();
+            }
+        }
+
+        // Guarded by this
+        private void startSending() {
+            if (!sending) {
+                sending = true;
+                senders.execute(this::send);
+            }
+        }
+
+        private void send() {
+            while (true) {
+                Event event;
+                synchronized (this) {
+                    event = pending.poll();
+                    if (event == null || cancelled) {
+                        sending = false;
+                        return;
+                    }
+                }
+                try {
+                    sink.send(event);
+                } catch (IOException | RuntimeException e) {
+                    // The client has gone
+                    cancel();
+                    return;
+                }
+            }
+        }
+
+        // Stops sending and closes the sink; safe to call more than once, including from the sink's own close
+        public void cancel() {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                pending.clear();
+            }
+            subscriptions.remove(this);
+            try {
+                sink.close();
+            } catch (RuntimeException e) {
+                // Already closed
+            }
+        }
+    }
+
+    public interface EventSink {
+        void send(Event event) throws IOException;
+
+        void close();
+    }
+}
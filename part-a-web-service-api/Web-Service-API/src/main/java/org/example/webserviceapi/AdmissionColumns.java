@@ -0,0 +1,160 @@
+package org.example.webserviceapi;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+
+// An Admissions snapshot held column by column, in upstream order: 24 bytes a row in four primitive arrays instead
+// of a record object and its reference, with a bitmap of the rows still open (not discharged). Dates the upstream
+// wrote in another form than yyyy-MM-ddTHH:mm:ss also keep their text, in columns that only exist once there is one.
+// Rows are addressed by index; get(row) materialises a record for the few places that write one out.
+public final class AdmissionColumns {
+
+    private final int size;
+    private final int[] ids;
+    private final int[] patientIDs;
+    private final long[] admissionDates;
+    private final long[] dischargeDates;
+    private final String[] admissionDateTexts;
+    private final String[] dischargeDateTexts;
+    private final BitSet open;
+
+    private AdmissionColumns(int size, int[] ids, int[] patientIDs, long[] admissionDates, long[] dischargeDates,
+                             String[] admissionDateTexts, String[] dischargeDateTexts, BitSet open) {
+        this.size = size;
+        this.ids = ids;
+        this.patientIDs = patientIDs;
+        this.admissionDates = admissionDates;
+        this.dischargeDates = dischargeDates;
+        this.admissionDateTexts = admissionDateTexts;
+        this.dischargeDateTexts = dischargeDateTexts;
+        this.open = open;
+    }
+
+    public static AdmissionColumns of(List<Admission> admissions) {
+        Builder builder = new Builder(admissions.size());
+        for (Admission admission : admissions) {
+            builder.add(admission.id(), admission.admissionDate(), admission.admissionDateText(),
+                    admission.dischargeDate(), admission.dischargeDateText(), admission.patientID());
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int id(int row) {
+        return ids[row];
+    }
+
+    public int patientID(int row) {
+        return patientIDs[row];
+    }
+
+    public long admissionDate(int row) {
+        return admissionDates[row];
+    }
+
+    public long dischargeDate(int row) {
+        return dischargeDates[row];
+    }
+
+    public boolean isOpen(int row) {
+        return open.get(row);
+    }
+
+    // The first open row at or after fromRow, or -1 if there is none
+    public int nextOpen(int fromRow) {
+        return open.nextSetBit(fromRow);
+    }
+
+    public int openCount() {
+        return open.cardinality();
+    }
+
+    public Admission get(int row) {
+        return new Admission(ids[row], admissionDates[row], dischargeDates[row], patientIDs[row],
+                admissionDateTexts != null ? admissionDateTexts[row] : null,
+                dischargeDateTexts != null ? dischargeDateTexts[row] : null);
+    }
+
+
+    // Appends rows into growing arrays, trimmed to size by build()
+    public static final class Builder {
+
+        private int size;
+        private int[] ids;
+        private int[] patientIDs;
+        private long[] admissionDates;
+        private long[] dischargeDates;
+        private String[] admissionDateTexts;
+        private String[] dischargeDateTexts;
+        private final BitSet open = new BitSet();
+
+        public Builder() {
+            this(64);
+        }
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 1);
+            ids = new int[capacity];
+            patientIDs = new int[capacity];
+            admissionDates = new long[capacity];
+            dischargeDates = new long[capacity];
+        }
+
+        public void add(int id, long admissionDate, long dischargeDate, int patientID) {
+            add(id, admissionDate, null, dischargeDate, null, patientID);
+        }
+
+        // The texts are null for dates in the upstream's usual form, see Admission
+        public void add(int id, long admissionDate, String admissionDateText, long dischargeDate, String dischargeDateText, int patientID) {
+            if (size == ids.length) {
+                int capacity = size + (size >> 1) + 1;
+                ids = Arrays.copyOf(ids, capacity);
+                patientIDs = Arrays.copyOf(patientIDs, capacity);
+                admissionDates = Arrays.copyOf(admissionDates, capacity);
+                dischargeDates = Arrays.copyOf(dischargeDates, capacity);
+                if (admissionDateTexts != null) {
+                    admissionDateTexts = Arrays.copyOf(admissionDateTexts, capacity);
+                }
+                if (dischargeDateTexts != null) {
+                    dischargeDateTexts = Arrays.copyOf(dischargeDateTexts, capacity);
+                }
+            }
+            ids[size] = id;
+            patientIDs[size] = patientID;
+            admissionDates[size] = admissionDate;
+            dischargeDates[size] = dischargeDate;
+            if (admissionDateText != null) {
+                if (admissionDateTexts == null) {
+                    admissionDateTexts = new String[ids.length];
+                }
+                admissionDateTexts[size] = admissionDateText;
+            }
+            if (dischargeDateText != null) {
+                if (dischargeDateTexts == null) {
+                    dischargeDateTexts = new String[ids.length];
+                }
+                dischargeDateTexts[size] = dischargeDateText;
+            }
+            if (dischargeDate == Admission.NOT_DISCHARGED) {
+                open.set(size);
+            }
+            size++;
+        }
+
+        public AdmissionColumns build() {
+            return new AdmissionColumns(size,
+                    Arrays.copyOf(ids, size),
+                    Arrays.copyOf(patientIDs, size),
+                    Arrays.copyOf(admissionDates, size),
+                    Arrays.copyOf(dischargeDates, size),
+                    admissionDateTexts != null ? Arrays.copyOf(admissionDateTexts, size) : null,
+                    dischargeDateTexts != null ? Arrays.copyOf(dischargeDateTexts, size) : null,
+                    (BitSet) open.clone());
+        }
+    }
+}
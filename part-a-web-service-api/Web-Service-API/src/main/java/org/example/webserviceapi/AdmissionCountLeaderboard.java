@@ -0,0 +1,167 @@
+package org.example.webserviceapi;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+
+// Per-employee admission (allocation) counts for F3, F4 and /EmployeesByAdmissionCount, built once per Allocations snapshot.
+// Employees are ranked by count, highest first, and employees with the same count by ID, lowest first.
+public class AdmissionCountLeaderboard {
+
+    public static final Comparator<Ranking> RANKING_ORDER = Comparator.comparingLong(Ranking::admissionCount).reversed()
+            .thenComparingInt(Ranking::employeeID);
+
+    // Allocation lists at least this long are counted in parallel partitions unless told otherwise
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 100_000;
+
+    // Employee IDs below this are also kept in a bitset for the F4 membership test (2 MB at most)
+    private static final int BITSET_LIMIT = 1 << 24;
+
+    // Smallest partition worth handing to another worker
+    private static final int MIN_PARTITION = 8192;
+
+    private final IntIntMap counts;
+    private final BitSet allocatedEmployees = new BitSet();
+    private final int[] employeeIDs;
+    private final long[] admissionCounts;
+    private final Ranking leader;
+
+    // Counts may include MISSING_ID for allocations without an employee; it is never ranked
+    private AdmissionCountLeaderboard(IntIntMap counts) {
+        this.counts = counts;
+
+        int[] keys = counts.keys();
+        int[] values = counts.values();
+        int ranked = counts.containsKey(HospitalJson.MISSING_ID) ? keys.length - 1 : keys.length;
+        this.employeeIDs = new int[ranked];
+        this.admissionCounts = new long[ranked];
+
+        Ranking best = null;
+        int i = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] == HospitalJson.MISSING_ID) {
+                continue;
+            }
+            if (keys[slot] >= 0 && keys[slot] < BITSET_LIMIT) {
+                allocatedEmployees.set(keys[slot]);
+            }
+
+            employeeIDs[i] = keys[slot];
+            admissionCounts[i] = values[slot];
+            Ranking candidate = new Ranking(employeeIDs[i], admissionCounts[i]);
+            if (best == null || RANKING_ORDER.compare(candidate, best) < 0) {
+                best = candidate;
+            }
+            i++;
+        }
+        this.leader = best;
+    }
+
+    public static AdmissionCountLeaderboard build(List<Allocation> allocations) {
+        return build(allocations, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    // Above the threshold the allocations are split across the common fork-join pool and the partial counts merged
+    public static AdmissionCountLeaderboard build(List<Allocation> allocations, int parallelThreshold) {
+        Allocation[] array = allocations.toArray(new Allocation[0]);
+
+        if (array.length < parallelThreshold || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            return new AdmissionCountLeaderboard(count(array, 0, array.length));
+        }
+
+        int partitionSize = Math.max(MIN_PARTITION, array.length / (ForkJoinPool.getCommonPoolParallelism() * 4));
+        return new AdmissionCountLeaderboard(ForkJoinPool.commonPool().invoke(new CountTask(array, 0, array.length, partitionSize)));
+    }
+
+    private static IntIntMap count(Allocation[] allocations, int from, int to) {
+        IntIntMap counts = new IntIntMap();
+        for (int i = from; i < to; i++) {
+            counts.addTo(allocations[i].employeeID(), 1);
+        }
+        return counts;
+    }
+
+    private static final class CountTask extends RecursiveTask<IntIntMap> {
+
+        private final Allocation[] allocations;
+        private final int from;
+        private final int to;
+        private final int partitionSize;
+
+        private CountTask(Allocation[] allocations, int from, int to, int partitionSize) {
+            this.allocations = allocations;
+            this.from = from;
+            this.to = to;
+            this.partitionSize = partitionSize;
+        }
+
+        @Override
+        protected IntIntMap compute() {
+            if (to - from <= partitionSize) {
+                return count(allocations, from, to);
+            }
+
+            int middle = (from + to) >>> 1;
+            CountTask right = new CountTask(allocations, middle, to, partitionSize);
+            right.fork();
+            IntIntMap counts = new CountTask(allocations, from, middle, partitionSize).compute();
+            IntIntMap rightCounts = right.join();
+
+            // Merge the smaller map into the larger one
+            if (rightCounts.size() > counts.size()) {
+                rightCounts.addAll(counts);
+                return rightCounts;
+            }
+            counts.addAll(rightCounts);
+            return counts;
+        }
+    }
+
+    // Whether any allocation names the employee; MISSING_ID matches allocations that name no employee
+    public boolean hasAdmissions(int employeeID) {
+        if (employeeID >= 0 && employeeID < BITSET_LIMIT) {
+            return allocatedEmployees.get(employeeID);
+        }
+        return counts.containsKey(employeeID);
+    }
+
+    // The employee with the most admissions, or null if no allocation names an employee
+    public Ranking leader() {
+        return leader;
+    }
+
+    // The top k employees in ranking order, selected with a k-sized heap rather than sorting every employee
+    public List<Ranking> top(int k) {
+        if (k <= 0) {
+            return List.of();
+        }
+        if (k == 1) {
+            return leader != null ? List.of(leader) : List.of();
+        }
+
+        // Worst of the current top k at the head, so each remaining employee is compared against it once
+        PriorityQueue<Ranking> heap = new PriorityQueue<>(Math.min(k, employeeIDs.length) + 1, RANKING_ORDER.reversed());
+        for (int i = 0; i < employeeIDs.length; i++) {
+            Ranking candidate = new Ranking(employeeIDs[i], admissionCounts[i]);
+            if (heap.size() < k) {
+                heap.add(candidate);
+            } else if (RANKING_ORDER.compare(candidate, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+
+        List<Ranking> top = new ArrayList<>(heap);
+        top.sort(RANKING_ORDER);
+        return top;
+    }
+
+    // Number of employees with at least one admission
+    public int size() {
+        return employeeIDs.length;
+    }
+
+    public record Ranking(int employeeID, long admissionCount) {
+    }
+}
@@ -0,0 +1,208 @@
+package org.example.webserviceapi;
+
+import java.util.Arrays;
+
+
+// Admission periods of an Admissions snapshot, for "who was admitted at time T" and date-range queries without
+// scanning every row. A period runs from its admission date up to, but not including, its discharge date; a patient
+// not yet discharged is admitted from their admission date onwards. Rows with no admission date, no discharge date or
+// a discharge before admission have no period and are never returned.
+//
+// Stabbing queries (admitted at T) go through a centred interval tree: each node holds the periods containing its
+// centre, sorted by start and by end, so a query only reads the periods it returns plus one node per level, i.e.
+// O(log N + k). A range query is the periods admitted at its start plus those starting inside it, the latter a
+// binary search into the periods sorted by start.
+public final class AdmissionIntervalIndex {
+
+    private static final int NO_NODE = -1;
+
+    // Rows with a period, sorted by admission date, and each one's start and end
+    private final int[] rowsByStart;
+    private final long[] sortedStarts;
+    private final long[] startOf;
+    private final long[] endOf;
+
+    // Tree nodes, node 0 the root. Node n holds rows nodeRowsByStart / nodeRowsByEnd[nodeOffset[n], + nodeCount[n])
+    private final long[] centre;
+    private final int[] nodeOffset;
+    private final int[] nodeCount;
+    private final int[] left;
+    private final int[] right;
+    private final int[] nodeRowsByStart;
+    private final int[] nodeRowsByEnd;
+
+    private AdmissionIntervalIndex(int[] rowsByStart, long[] startOf, long[] endOf) {
+        this.rowsByStart = rowsByStart;
+        this.startOf = startOf;
+        this.endOf = endOf;
+        this.sortedStarts = new long[rowsByStart.length];
+        for (int i = 0; i < rowsByStart.length; i++) {
+            sortedStarts[i] = startOf[rowsByStart[i]];
+        }
+
+        // Every node holds at least one period, so there are at most as many nodes as periods
+        int capacity = rowsByStart.length;
+        this.centre = new long[capacity];
+        this.nodeOffset = new int[capacity];
+        this.nodeCount = new int[capacity];
+        this.left = new int[capacity];
+        this.right = new int[capacity];
+        this.nodeRowsByStart = new int[capacity];
+        this.nodeRowsByEnd = new int[capacity];
+    }
+
+    public static AdmissionIntervalIndex build(AdmissionColumns admissions) {
+        long[] startOf = new long[admissions.size()];
+        long[] endOf = new long[admissions.size()];
+        int periods = 0;
+        Integer[] order = new Integer[admissions.size()];
+        for (int row = 0; row < admissions.size(); row++) {
+            long start = admissions.admissionDate(row);
+            long end = admissions.isOpen(row) ? Long.MAX_VALUE : admissions.dischargeDate(row);
+            if (start == HospitalJson.MISSING_TIME || end == HospitalJson.MISSING_TIME || end <= start) {
+                continue;
+            }
+            startOf[row] = start;
+            endOf[row] = end;
+            order[periods++] = row;
+        }
+
+        // Sorted by start; the sort is stable, so ties stay in upstream order
+        Arrays.sort(order, 0, periods, (a, b) -> Long.compare(startOf[a], startOf[b]));
+        int[] rowsByStart = new int[periods];
+        for (int i = 0; i < periods; i++) {
+            rowsByStart[i] = order[i];
+        }
+
+        AdmissionIntervalIndex index = new AdmissionIntervalIndex(rowsByStart, startOf, endOf);
+        index.buildNode(rowsByStart, new int[1], new int[1]);
+        return index;
+    }
+
+    // Builds the subtree for rows (sorted by start) and returns its node. The centre is the start of the median row,
+    // so the periods ending before it and those starting after it are each at most half of rows.
+    private int buildNode(int[] rows, int[] nextNode, int[] nextOffset) {
+        if (rows.length == 0) {
+            return NO_NODE;
+        }
+        long nodeCentre = startOf[rows[rows.length / 2]];
+
+        int[] before = new int[rows.length];
+        int[] after = new int[rows.length];
+        int beforeCount = 0;
+        int afterCount = 0;
+        int offset = nextOffset[0];
+        int count = 0;
+        for (int row : rows) {
+            if (endOf[row] <= nodeCentre) {
+                before[beforeCount++] = row;
+            } else if (startOf[row] > nodeCentre) {
+                after[afterCount++] = row;
+            } else {
+                nodeRowsByStart[offset + count++] = row;
+            }
+        }
+
+        int node = nextNode[0]++;
+        nextOffset[0] += count;
+        centre[node] = nodeCentre;
+        nodeOffset[node] = offset;
+        nodeCount[node] = count;
+
+        Integer[] byEnd = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            byEnd[i] = nodeRowsByStart[offset + i];
+        }
+        Arrays.sort(byEnd, (a, b) -> Long.compare(endOf[b], endOf[a]));
+        for (int i = 0; i < count; i++) {
+            nodeRowsByEnd[offset + i] = byEnd[i];
+        }
+
+        left[node] = buildNode(Arrays.copyOf(before, beforeCount), nextNode, nextOffset);
+        right[node] = buildNode(Arrays.copyOf(after, afterCount), nextNode, nextOffset);
+        return node;
+    }
+
+    // Number of rows with a period
+    public int size() {
+        return rowsByStart.length;
+    }
+
+    // Rows of the patients admitted at the given time, in upstream order
+    public int[] admittedAt(long time) {
+        Rows found = new Rows();
+        stab(time, found);
+        return found.sorted();
+    }
+
+    // Rows of the patients admitted at any time from one time to another, both inclusive, in upstream order
+    public int[] admittedBetween(long from, long to) {
+        if (from > to) {
+            return new int[0];
+        }
+        Rows found = new Rows();
+        stab(from, found);
+        // Everything starting after from up to to; those starting at or before from were found by the stab
+        int first = firstStartAfter(from);
+        for (int i = first; i < sortedStarts.length && sortedStarts[i] <= to; i++) {
+            found.add(rowsByStart[i]);
+        }
+        return found.sorted();
+    }
+
+    private void stab(long time, Rows found) {
+        int node = rowsByStart.length == 0 ? NO_NODE : 0;
+        while (node != NO_NODE) {
+            int offset = nodeOffset[node];
+            int end = offset + nodeCount[node];
+            if (time < centre[node]) {
+                // Every period here ends after the centre, so contains time if it has started by then
+                for (int i = offset; i < end && startOf[nodeRowsByStart[i]] <= time; i++) {
+                    found.add(nodeRowsByStart[i]);
+                }
+                node = left[node];
+            } else {
+                // Every period here has started by the centre, so contains time if it has not yet ended
+                for (int i = offset; i < end && endOf[nodeRowsByEnd[i]] > time; i++) {
+                    found.add(nodeRowsByEnd[i]);
+                }
+                node = right[node];
+            }
+        }
+    }
+
+    private int firstStartAfter(long time) {
+        int low = 0;
+        int high = sortedStarts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedStarts[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+
+    // Growing array of matched rows
+    private static final class Rows {
+
+        private int[] rows = new int[16];
+        private int size;
+
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        int[] sorted() {
+            int[] result = Arrays.copyOf(rows, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
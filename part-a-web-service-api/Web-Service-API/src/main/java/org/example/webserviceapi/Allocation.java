@@ -0,0 +1,7 @@
+package org.example.webserviceapi;
+
+
+// An upstream Allocations record, linking an employee to an admission. Its startTime and endTime are not read, as no
+// endpoint uses them, so a malformed time there cannot fail the dataset.
+public record Allocation(int id, int admissionID, int employeeID) {
+}
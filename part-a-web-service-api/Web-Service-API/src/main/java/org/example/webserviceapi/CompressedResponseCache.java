@@ -0,0 +1,122 @@
+package org.example.webserviceapi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+
+// Gzipped response bodies, kept per endpoint and ETag, so the deflate only has to run the first time a result is
+// served and every later hit is a copy of the kept bytes. The tag only finds the entry: each entry also holds a
+// SHA-256 digest of the body it was compressed from, and a hit whose body has a different digest is compressed again,
+// so a tag that fails to change with its body can never serve the wrong bytes.
+// Bounded by the total size of the kept bodies, dropping the least recently served first.
+public class CompressedResponseCache {
+
+    // Kept for bodies that did not get smaller, so they are not compressed again on every hit
+    private static final byte[] INCOMPRESSIBLE = new byte[0];
+
+    static final int DIGEST_BYTES = 32;
+
+    private final Map<String, Entry> bodies = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final int minSizeBytes;
+
+    private final long maxCachedBytes;
+
+    private final HospitalMetrics metrics;
+
+    private long cachedBytes;
+
+    public CompressedResponseCache(int minSizeBytes, long maxCachedBytes, HospitalMetrics metrics) {
+        this.minSizeBytes = minSizeBytes;
+        this.maxCachedBytes = maxCachedBytes;
+        this.metrics = metrics;
+    }
+
+    // The gzipped body, or null when it should go out uncompressed (too small, or compression did not help)
+    public byte[] gzip(String endpoint, String etag, byte[] body) throws IOException {
+        if (body.length < minSizeBytes) {
+            return null;
+        }
+
+        String key = endpoint + ' ' + etag;
+        byte[] digest = digest(body);
+        Entry entry;
+        synchronized (bodies) {
+            entry = bodies.get(key);
+        }
+        if (entry != null && MessageDigest.isEqual(entry.digest(), digest)) {
+            metrics.recordCompressionCacheLookup(endpoint, true);
+            return entry.compressed() == INCOMPRESSIBLE ? null : entry.compressed();
+        }
+        metrics.recordCompressionCacheLookup(endpoint, false);
+
+        // Two requests missing at once may both compress; the result is the same either way
+        byte[] compressed = gzip(body);
+        metrics.recordCompression(endpoint, body.length, compressed.length);
+        if (compressed.length >= body.length) {
+            compressed = INCOMPRESSIBLE;
+        }
+        put(key, new Entry(digest, compressed));
+        return compressed == INCOMPRESSIBLE ? null : compressed;
+    }
+
+    public long cachedBytes() {
+        synchronized (bodies) {
+            return cachedBytes;
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        if (entry.size() > maxCachedBytes) {
+            return;
+        }
+        synchronized (bodies) {
+            Entry previous = bodies.put(key, entry);
+            cachedBytes += entry.size() - (previous != null ? previous.size() : 0);
+
+            Iterator<Map.Entry<String, Entry>> eldest = bodies.entrySet().iterator();
+            while (cachedBytes > maxCachedBytes && eldest.hasNext()) {
+                cachedBytes -= eldest.next().getValue().size();
+                eldest.remove();
+            }
+        }
+    }
+
+    // Far cheaper than the deflate it saves, which runs at the best compression level
+    private static byte[] digest(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JDK has SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192) {
+            {
+                // Bodies are compressed once and then served many times, so spend the extra time on the best ratio
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+
+    private record Entry(byte[] digest, byte[] compressed) {
+
+        long size() {
+            return DIGEST_BYTES + compressed.length;
+        }
+    }
+}
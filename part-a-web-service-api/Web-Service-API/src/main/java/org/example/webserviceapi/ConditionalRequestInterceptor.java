@@ -0,0 +1,171 @@
+package org.example.webserviceapi;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+
+// Revalidates upstream GETs instead of downloading them again. The last body of each URL is kept with its ETag and
+// Last-Modified validators, which are sent back as If-None-Match and If-Modified-Since; a 304 Not Modified is then
+// answered from the kept body, so callers always see a complete 200. Responses without validators are not kept.
+// Bounded by the total size of the kept bodies, dropping the least recently requested URL first.
+public class ConditionalRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    // Access-ordered, so the least recently requested URL is dropped first
+    private final Map<URI, Validated> responses = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final long maxKeptBytes;
+
+    private long keptBytes;
+
+    private final LongAdder revalidated = new LongAdder();
+
+    public ConditionalRequestInterceptor(long maxKeptBytes) {
+        this.maxKeptBytes = maxKeptBytes;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (!HttpMethod.GET.equals(request.getMethod())) {
+            return execution.execute(request, body);
+        }
+
+        URI uri = request.getURI();
+        Validated cached;
+        synchronized (responses) {
+            cached = responses.get(uri);
+        }
+        if (cached != null) {
+            if (cached.etag() != null) {
+                request.getHeaders().setIfNoneMatch(cached.etag());
+            }
+            if (cached.lastModified() >= 0) {
+                request.getHeaders().setIfModifiedSince(cached.lastModified());
+            }
+        }
+
+        ClientHttpResponse response = execution.execute(request, body);
+        int status = response.getStatusCode().value();
+
+        if (status == HttpStatus.NOT_MODIFIED.value() && cached != null) {
+            response.close();
+            revalidated.increment();
+            return cached.toResponse();
+        }
+        if (status != HttpStatus.OK.value()) {
+            return response;
+        }
+
+        HttpHeaders headers = response.getHeaders();
+        String etag = headers.getETag();
+        long lastModified = headers.getLastModified();
+        if (etag == null && lastModified < 0) {
+            remove(uri);
+            return response;
+        }
+
+        // The body has to be read here to keep it, so the caller gets a buffered copy
+        Validated validated;
+        try (response; InputStream in = response.getBody()) {
+            validated = new Validated(etag, lastModified, copyOf(headers), in.readAllBytes());
+        }
+        put(uri, validated);
+        return validated.toResponse();
+    }
+
+    // A body larger than the whole budget is not kept, and neither is the older body it replaces
+    private void put(URI uri, Validated validated) {
+        if (validated.body().length > maxKeptBytes) {
+            remove(uri);
+            return;
+        }
+        synchronized (responses) {
+            Validated previous = responses.put(uri, validated);
+            keptBytes += validated.body().length - (previous != null ? previous.body().length : 0);
+
+            Iterator<Validated> eldest = responses.values().iterator();
+            while (keptBytes > maxKeptBytes && eldest.hasNext()) {
+                keptBytes -= eldest.next().body().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    private void remove(URI uri) {
+        synchronized (responses) {
+            Validated previous = responses.remove(uri);
+            if (previous != null) {
+                keptBytes -= previous.body().length;
+            }
+        }
+    }
+
+    // Number of upstream calls answered 304 Not Modified from a kept body
+    public long revalidatedCount() {
+        return revalidated.sum();
+    }
+
+    int size() {
+        synchronized (responses) {
+            return responses.size();
+        }
+    }
+
+    long keptBytes() {
+        synchronized (responses) {
+            return keptBytes;
+        }
+    }
+
+    private static HttpHeaders copyOf(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        copy.addAll(headers);
+        return copy;
+    }
+
+
+    private record Validated(String etag, long lastModified, HttpHeaders headers, byte[] body) {
+
+        ClientHttpResponse toResponse() {
+            return new ClientHttpResponse() {
+                @Override
+                public HttpStatusCode getStatusCode() {
+                    return HttpStatus.OK;
+                }
+
+                @Override
+                public String getStatusText() {
+                    return HttpStatus.OK.getReasonPhrase();
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return headers;
+                }
+
+                @Override
+                public InputStream getBody() {
+                    return new ByteArrayInputStream(body);
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+}
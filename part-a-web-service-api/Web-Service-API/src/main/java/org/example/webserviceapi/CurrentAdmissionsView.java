@@ -0,0 +1,136 @@
+package org.example.webserviceapi;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+
+// Materialised set of open admissions (discharge date still the upstream's "not discharged" sentinel) for F2.
+// Each new Admissions snapshot is diffed against the previous one by admission ID: new open admissions are added,
+// discharged or removed ones are dropped and changed ones replaced. The listing itself keeps every open row in the
+// snapshot's order, repeated IDs included, as F2 always has.
+// What is incremental is the diff and the JSON: each open row's JSON is kept, only admitted and updated rows are
+// written again, and the body is only put back together when the rows changed. Each snapshot's open rows are still
+// all visited, since a snapshot is the whole upstream list rather than a change to it, and a changed listing's body is
+// still assembled in full, since it is served as one string.
+public class CurrentAdmissionsView {
+
+    private final LinkedHashMap<Integer, Admission> openAdmissions = new LinkedHashMap<>();
+
+    // F2 row JSON of each admission in openAdmissions, by ID
+    private final Map<Integer, String> rowBodies = new HashMap<>();
+
+    private volatile Listing listing = new Listing(-1, List.of(), null);
+
+    private final List<Consumer<Delta>> listeners = new CopyOnWriteArrayList<>();
+
+    // Called with the changes between each snapshot and the one before it, in snapshot order. Not called for the
+    // first snapshot, which has nothing to be compared with.
+    public void addListener(Consumer<Delta> listener) {
+        listeners.add(listener);
+    }
+
+    public Delta advanceTo(long snapshotVersion, List<Admission> admissions) throws IOException {
+        return advanceTo(snapshotVersion, AdmissionColumns.of(admissions));
+    }
+
+    // Apply an Admissions snapshot newer than the one last applied; older or repeated versions are ignored.
+    // Only the open rows are visited, through the snapshot's bitmap of them.
+    public synchronized Delta advanceTo(long snapshotVersion, AdmissionColumns admissions) throws IOException {
+        Listing current = listing;
+        if (snapshotVersion <= current.version()) {
+            return new Delta(current.version(), List.of(), List.of(), List.of());
+        }
+
+        List<Admission> openRows = new ArrayList<>();
+        List<Admission> admitted = new ArrayList<>();
+        List<Admission> updated = new ArrayList<>();
+        Set<Integer> stillOpen = new HashSet<>();
+
+        for (int row = admissions.nextOpen(0); row >= 0; row = admissions.nextOpen(row + 1)) {
+            Admission admission = admissions.get(row);
+            openRows.add(admission);
+            // The diff goes by ID, so a repeated ID only counts where it first appears
+            if (!stillOpen.add(admission.id())) {
+                continue;
+            }
+
+            Admission previous = openAdmissions.put(admission.id(), admission);
+            if (previous == null) {
+                admitted.add(admission);
+            } else if (!previous.equals(admission)) {
+                updated.add(admission);
+            } else {
+                continue;
+            }
+            rowBodies.put(admission.id(), rowBody(admission));
+        }
+
+        List<Admission> discharged = new ArrayList<>();
+        Iterator<Admission> iterator = openAdmissions.values().iterator();
+        while (iterator.hasNext()) {
+            Admission admission = iterator.next();
+            if (!stillOpen.contains(admission.id())) {
+                discharged.add(admission);
+                iterator.remove();
+                rowBodies.remove(admission.id());
+            }
+        }
+
+        Delta delta = new Delta(snapshotVersion, admitted, discharged, updated);
+        // Compared row by row as well, since reordered or repeated rows change the listing without changing the delta
+        if (current.body() == null || !delta.isEmpty() || !openRows.equals(current.rows())) {
+            List<Admission> rows = List.copyOf(openRows);
+            listing = new Listing(snapshotVersion, rows, body(rows));
+        } else {
+            listing = new Listing(snapshotVersion, current.rows(), current.body());
+        }
+
+        // Still under the lock, so listeners see deltas one at a time and in order
+        if (current.body() != null && !delta.isEmpty()) {
+            for (Consumer<Delta> listener : listeners) {
+                try {
+                    listener.accept(delta);
+                } catch (RuntimeException e) {
+                    // A failing listener must not stop the view from advancing
+                }
+            }
+        }
+
+        return delta;
+    }
+
+    // The kept row JSON joined as writeArray would write it
+    private String body(List<Admission> rows) throws IOException {
+        StringBuilder body = new StringBuilder("[");
+        for (Admission row : rows) {
+            if (body.length() > 1) {
+                body.append(',');
+            }
+            // A repeated ID whose row differs from where the ID first appears has no kept JSON of its own
+            body.append(row.equals(openAdmissions.get(row.id())) ? rowBodies.get(row.id()) : rowBody(row));
+        }
+        return body.append(']').toString();
+    }
+
+    private static String rowBody(Admission admission) throws IOException {
+        return HospitalJson.writeObject(admission, HospitalJson::writeCurrentAdmission);
+    }
+
+    public Listing listing() {
+        return listing;
+    }
+
+    // Open admissions as of an Admissions snapshot version, in upstream order, with the F2 response body for them
+    public record Listing(long version, List<Admission> rows, String body) {
+    }
+
+    // Changes between two successive Admissions snapshots
+    public record Delta(long version, List<Admission> admitted, List<Admission> discharged, List<Admission> updated) {
+
+        public boolean isEmpty() {
+            return admitted.isEmpty() && discharged.isEmpty() && updated.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.webserviceapi;
+
+
+// An upstream Employees record. Surname and forename are null when the upstream left them out. json is the record
+// exactly as the upstream sent it, every field included, and is what the endpoints write out; null for a record that
+// was not parsed from upstream JSON.
+public record Employee(int id, String surname, String forename, String json) {
+
+    public Employee(int id, String surname, String forename) {
+        this(id, surname, forename, null);
+    }
+
+    // Whether the record has every field the endpoints return, without needing Employees/{id}
+    public boolean hasDetails() {
+        return id != HospitalJson.MISSING_ID && surname != null && forename != null;
+    }
+}
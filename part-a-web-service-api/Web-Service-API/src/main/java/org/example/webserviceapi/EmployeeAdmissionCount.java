@@ -0,0 +1,6 @@
+package org.example.webserviceapi;
+
+
+// A /EmployeesByAdmissionCount row. Surname and forename are null when the bulk Employees list has no details for the employee.
+public record EmployeeAdmissionCount(int id, String surname, String forename, long admissionCount) {
+}
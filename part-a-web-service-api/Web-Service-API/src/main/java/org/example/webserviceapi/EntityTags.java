@@ -0,0 +1,87 @@
+package org.example.webserviceapi;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+
+// Strong ETags for responses built only from upstream snapshots. Such a response is fully determined by the endpoint,
+// its parameters and the versions of the snapshots it reads, so those make up the tag. Responses that also include
+// data no snapshot version covers (Employees/{id} calls, say) must not be tagged at all.
+// The tag is checked against If-None-Match once the response is known to exist, so "*" never turns a 404 into a 304,
+// but before its body is written.
+public final class EntityTags {
+
+    // Snapshot versions restart with the process, so a random epoch keeps tags from an earlier run from matching
+    private static final String EPOCH = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+
+    private EntityTags() {
+    }
+
+    // Snapshots may be null when a response does not need that dataset after all
+    public static String of(String endpoint, String parameters, UpstreamSnapshotCache.Snapshot... snapshots) {
+        StringBuilder tag = new StringBuilder("\"").append(EPOCH).append('-').append(endpoint);
+        for (UpstreamSnapshotCache.Snapshot snapshot : snapshots) {
+            tag.append('-').append(snapshot != null ? Long.toString(snapshot.version()) : "x");
+        }
+        return withParameters(tag, parameters);
+    }
+
+    // For a response built from a view that tracks the snapshots by version, such as CurrentAdmissionsView, which may
+    // already be ahead of the snapshot the request read; the tag is the one the snapshot at that version would give
+    public static String ofVersion(String endpoint, String parameters, long version) {
+        StringBuilder tag = new StringBuilder("\"").append(EPOCH).append('-').append(endpoint).append('-').append(version);
+        return withParameters(tag, parameters);
+    }
+
+    private static String withParameters(StringBuilder tag, String parameters) {
+        if (!parameters.isEmpty()) {
+            tag.append('-').append(hash(parameters));
+        }
+        return tag.append('"').toString();
+    }
+
+    // Whether the current request's If-None-Match already holds the tag; false outside of a request
+    public static boolean notModified(String etag) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return matches(servletAttributes.getRequest().getHeader(HttpHeaders.IF_NONE_MATCH), etag);
+        }
+        return false;
+    }
+
+    // If-None-Match uses weak comparison, so W/ prefixes are ignored; "*" matches any current representation
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // SHA-256, so parameters of any length or character set become a token that clients cannot make collide
+    private static String hash(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JDK has SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
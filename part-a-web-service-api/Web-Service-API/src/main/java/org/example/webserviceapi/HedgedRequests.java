@@ -0,0 +1,229 @@
+package org.example.webserviceapi;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+
+// Hedged calls: when a call has not answered within a delay taken from a percentile of recent latencies, a duplicate
+// is sent and whichever answers first is used. Hedges are paid for from a budget that grows by a fixed fraction of a
+// token per call, so at most that fraction of calls can be duplicated however slow the upstream gets.
+// Hedges run on a small pool of their own, so one is never queued behind the stalled calls it is meant to race; one
+// that finds no thread free is not sent. The delay is taken from the latencies of primaries whether they won or not.
+public class HedgedRequests {
+
+    // Outcomes reported per call, for the hedge rate (hedged / all) and win rate (hedge-won / hedged)
+    public static final String UNHEDGED = "unhedged";
+    public static final String OVER_BUDGET = "over-budget";
+    public static final String PRIMARY_WON = "primary-won";
+    public static final String HEDGE_WON = "hedge-won";
+    public static final String FAILED = "failed";
+
+    // Hedging waits for this many latencies before it has a percentile to go on
+    static final int MIN_SAMPLES = 20;
+
+    private static final int WINDOW = 256;
+
+    // Unspent budget is capped, so a quiet spell cannot save up for a burst of hedges
+    private static final double MAX_TOKENS = 10;
+
+    private static final int HEDGE_THREADS = 4;
+
+    private final Consumer<String> outcomes;
+
+    private final ScheduledThreadPoolExecutor timer;
+
+    private final ThreadPoolExecutor hedgeExecutor;
+
+    private volatile double percentile = 0.95;
+    private volatile Duration minDelay = Duration.ofMillis(20);
+    private volatile double budget = 0.1;
+
+    // Guarded by this
+    private final long[] latencies = new long[WINDOW];
+    private int samples;
+    private long delayNanos = -1;
+    private double tokens;
+
+    public HedgedRequests(Consumer<String> outcomes) {
+        this.outcomes = outcomes;
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "upstream-hedge-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.hedgeExecutor = new ThreadPoolExecutor(0, HEDGE_THREADS, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "upstream-hedge-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    // Fraction of calls that may be hedged
+    public void setBudget(double budget) {
+        this.budget = budget;
+    }
+
+    // Runs primary on the executor and, if it is still outstanding after the hedge delay, hedge on the hedge pool.
+    // The result is the first answer; it fails only once every call sent has failed. Cancelling it cancels both.
+    // A primary beaten by its hedge is left to finish, for its latency; cancelling it would not stop a call it shares
+    // with other callers anyway (see SingleFlight), only its wait for it.
+    public <T> CompletableFuture<T> submit(ExecutorService executor, Supplier<T> primary, Supplier<T> hedge) {
+        HedgedCall<T> call = new HedgedCall<>();
+        synchronized (call) {
+            call.primary = executor.submit(() -> call.attempt(primary, false));
+        }
+
+        long delay = hedgeDelayNanos();
+        ScheduledFuture<?> hedgeTimer = delay < 0 ? null : timer.schedule(() -> {
+            synchronized (call) {
+                if (call.result.isDone()) {
+                    return;
+                }
+                if (!spendToken()) {
+                    call.outcome = OVER_BUDGET;
+                    return;
+                }
+                try {
+                    call.hedge = hedgeExecutor.submit(() -> call.attempt(hedge, true));
+                } catch (RejectedExecutionException e) {
+                    // Every hedge thread is busy
+                    refundToken();
+                    call.outcome = OVER_BUDGET;
+                    return;
+                }
+                call.outstanding++;
+                call.outcome = FAILED;
+            }
+        }, delay, TimeUnit.NANOSECONDS);
+
+        call.result.whenComplete((value, failure) -> {
+            if (hedgeTimer != null) {
+                hedgeTimer.cancel(false);
+            }
+            String outcome;
+            synchronized (call) {
+                // A losing hedge, or both calls if the result was cancelled; the winner has already finished its work
+                if (!call.hedgeWon) {
+                    cancel(call.hedge);
+                }
+                if (failure != null) {
+                    cancel(call.primary);
+                }
+                outcome = call.outcome;
+            }
+            outcomes.accept(outcome);
+        });
+        return call.result;
+    }
+
+    private static void cancel(Future<?> call) {
+        if (call != null) {
+            call.cancel(true);
+        }
+    }
+
+
+    private final class HedgedCall<T> {
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        // Guarded by this
+        private Future<?> primary;
+        private Future<?> hedge;
+        private int outstanding = 1;
+        private String outcome = UNHEDGED;
+        private boolean hedgeWon;
+
+        void attempt(Supplier<T> call, boolean isHedge) {
+            long start = System.nanoTime();
+            try {
+                T value = call.get();
+                if (!isHedge) {
+                    // Won or lost, or the delay would only ever be taken from the quicker calls
+                    recordLatency(System.nanoTime() - start);
+                }
+                synchronized (this) {
+                    if (result.isDone()) {
+                        return;
+                    }
+                    // Only a call that was raced against a hedge has a winner
+                    if (outcome.equals(FAILED)) {
+                        outcome = isHedge ? HEDGE_WON : PRIMARY_WON;
+                        hedgeWon = isHedge;
+                    }
+                    result.complete(value);
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    if (--outstanding > 0) {
+                        return;
+                    }
+                }
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    // Budget accrues with every call, whether or not it is hedged
+    private synchronized boolean spendToken() {
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void refundToken() {
+        tokens = Math.min(MAX_TOKENS, tokens + 1);
+    }
+
+    private synchronized long hedgeDelayNanos() {
+        tokens = Math.min(MAX_TOKENS, tokens + budget);
+        return delayNanos;
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencies[samples % WINDOW] = nanos;
+        samples++;
+        // Re-derived every few samples rather than on every call, it only needs to track the upstream's drift
+        if (samples >= MIN_SAMPLES && samples % 16 == 0 || samples == MIN_SAMPLES) {
+            long[] window = Arrays.copyOf(latencies, Math.min(samples, WINDOW));
+            Arrays.sort(window);
+            int rank = (int) Math.ceil(percentile * window.length) - 1;
+            delayNanos = Math.max(minDelay.toNanos(), window[Math.max(0, Math.min(rank, window.length - 1))]);
+        }
+    }
+
+    // Current delay before a hedge is sent, or -1 while there are too few latencies to derive it
+    synchronized long currentDelayNanos() {
+        return delayNanos;
+    }
+
+    // Latencies recorded so far
+    synchronized int latencySamples() {
+        return samples;
+    }
+}
@@ -1,229 +1,1008 @@
 package org.example.webserviceapi;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 
 @RestController
 public class HospitalController {
 
-    private final String API_BASE_URL = "https://web.socem.plymouth.ac.uk/COMP2005/api/";
+    private volatile String apiBaseUrl = "https://web.socem.plymouth.ac.uk/COMP2005/api/";
 
     private final RestTemplate restTemplate;
 
+    private final UpstreamSnapshotCache snapshotCache;
+
+    private final CurrentAdmissionsView currentAdmissionsView = new CurrentAdmissionsView();
+
+    private final SingleFlight<String, ResponseEntity<String>> upstreamCalls;
+
+    private final ResultCursors resultCursors = new ResultCursors(16);
+
+    private volatile int maxPageSize = 1000;
+
+    private volatile int maxBatchSize = 500;
+
+    private final ThreadPoolExecutor upstreamExecutor;
+
+    // Runs the coalesced upstream calls, for this controller and its snapshot cache alike
+    private final ThreadPoolExecutor upstreamCallExecutor;
+
+    private volatile Duration requestDeadline = Duration.ofSeconds(5);
+
+    private volatile int parallelCountThreshold = AdmissionCountLeaderboard.DEFAULT_PARALLEL_THRESHOLD;
+
+    private volatile HospitalMetrics metrics = new HospitalMetrics(Metrics.globalRegistry);
+
+    private final HedgedRequests hedgedEmployeeRequests = new HedgedRequests(outcome -> metrics.recordHedgeOutcome("Employees/{id}", outcome));
+
+    private volatile boolean hedgingEnabled;
+
+    private volatile SnapshotFile snapshotFile;
+
+    private final AdmissionChangeFeed admissionChangeFeed = new AdmissionChangeFeed(this::pollAdmissions);
+
+    private volatile Duration changeFeedTimeout = Duration.ofMinutes(30);
+
     public HospitalController(RestTemplate restTemplate) {
         this.restTemplate = restTemplate;
+        this.upstreamExecutor = newUpstreamExecutor(8);
+        this.upstreamCallExecutor = SingleFlight.newCallExecutor(8, "upstream-call-");
+        this.upstreamCalls = new SingleFlight<>(upstreamCallExecutor);
+        this.snapshotCache = new UpstreamSnapshotCache(this::downloadDataFromEndpoint, UpstreamSnapshotCache.newRefreshExecutor(), upstreamCallExecutor);
+
+        // Keep the F2 view in step with every Admissions snapshot, including ones from background refreshes
+        snapshotCache.addListener(snapshot -> {
+            if (snapshot.dataset().equals("Admissions")) {
+                try {
+                    currentAdmissionsOf(snapshot);
+                } catch (IOException e) {
+                    // Left for the next request on this snapshot to report
+                }
+            }
+        });
+        currentAdmissionsView.addListener(admissionChangeFeed::publish);
+    }
+
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.metrics = new HospitalMetrics(meterRegistry);
+    }
+
+    // Root of the upstream API; pointed at a local simulator for load testing
+    @Value("${hospital.upstream.base-url:https://web.socem.plymouth.ac.uk/COMP2005/api/}")
+    public void setApiBaseUrl(String apiBaseUrl) {
+        this.apiBaseUrl = apiBaseUrl.endsWith("/") ? apiBaseUrl : apiBaseUrl + "/";
     }
 
-    // Retrieve data from an API endpoint
-    private ResponseEntity<String> fetchDataFromEndpoint(String endpoint) {
-        ResponseEntity<String> responseEntity = restTemplate.getForEntity(API_BASE_URL + endpoint, String.class);
+    @Value("${hospital.cache.ttl-seconds:30}")
+    public void setCacheTtlSeconds(long ttlSeconds) {
+        snapshotCache.setTtl(Duration.ofSeconds(ttlSeconds));
+    }
+
+    @Value("${hospital.cache.max-stale-seconds:600}")
+    public void setCacheMaxStaleSeconds(long maxStaleSeconds) {
+        snapshotCache.setMaxStale(Duration.ofSeconds(maxStaleSeconds));
+    }
+
+    // Also the most upstream calls made at once
+    @Value("${hospital.upstream.fetch-threads:8}")
+    public void setUpstreamFetchThreads(int fetchThreads) {
+        resize(upstreamExecutor, fetchThreads);
+        resize(upstreamCallExecutor, fetchThreads);
+    }
 
-        if (responseEntity.getBody() == null || responseEntity.getBody().isEmpty()) {
+    // Longest a request waits for the upstream calls it issues in parallel before answering 504
+    @Value("${hospital.upstream.request-deadline-ms:5000}")
+    public void setRequestDeadlineMs(long requestDeadlineMs) {
+        this.requestDeadline = Duration.ofMillis(requestDeadlineMs);
+    }
+
+    // Allocation lists at least this long are counted across the fork-join pool
+    @Value("${hospital.aggregation.parallel-threshold:100000}")
+    public void setParallelCountThreshold(int parallelCountThreshold) {
+        this.parallelCountThreshold = parallelCountThreshold;
+    }
+
+    // Most patient IDs one /Admissions/batch request may ask for
+    @Value("${hospital.batch.max-patient-ids:500}")
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    // Largest limit a paged request may ask for
+    @Value("${hospital.pagination.max-limit:1000}")
+    public void setMaxPageSize(int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+
+    // Results that paged requests have started on are kept for their cursors, at most this many of them
+    @Value("${hospital.pagination.pinned-results:16}")
+    public void setPinnedResults(int pinnedResults) {
+        resultCursors.setMaxPinned(pinnedResults);
+    }
+
+    // The last good upstream snapshots are kept in this file and served from it after a restart; blank to disable
+    @Value("${hospital.snapshot.file:}")
+    public void setSnapshotFile(String snapshotFile) {
+        this.snapshotFile = snapshotFile.isBlank() ? null : new SnapshotFile(Path.of(snapshotFile));
+    }
+
+    // Runs once every setting is applied, before requests are taken, so the restored snapshots are there for the first
+    @PostConstruct
+    public void restoreSnapshots() {
+        SnapshotFile file = snapshotFile;
+        if (file == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (SnapshotFile.Entry entry : file.load()) {
+            Duration age = Duration.ofMillis(now - entry.fetchedAtEpochMillis());
+            if (snapshotCache.restore(entry.dataset(), entry.body(), age)) {
+                snapshotCache.refresh(entry.dataset());
+            }
+        }
+        snapshotCache.addListener(file::saveLater);
+        snapshotCache.addRevalidatedListener(file::revalidatedLater);
+    }
+
+    // Employees/{id} calls still outstanding at this percentile of recent latencies are sent a second time
+    @Value("${hospital.upstream.hedging.enabled:false}")
+    public void setHedgingEnabled(boolean hedgingEnabled) {
+        this.hedgingEnabled = hedgingEnabled;
+    }
+
+    @Value("${hospital.upstream.hedging.percentile:0.95}")
+    public void setHedgingPercentile(double percentile) {
+        hedgedEmployeeRequests.setPercentile(percentile);
+    }
+
+    @Value("${hospital.upstream.hedging.min-delay-ms:20}")
+    public void setHedgingMinDelayMs(long minDelayMs) {
+        hedgedEmployeeRequests.setMinDelay(Duration.ofMillis(minDelayMs));
+    }
+
+    // Fraction of Employees/{id} calls that may be hedged
+    @Value("${hospital.upstream.hedging.budget:0.1}")
+    public void setHedgingBudget(double budget) {
+        hedgedEmployeeRequests.setBudget(budget);
+    }
+
+    // Recent /AdmissionChanges events kept for subscribers that reconnect
+    @Value("${hospital.changes.history:10000}")
+    public void setChangeFeedHistory(int history) {
+        admissionChangeFeed.setMaxHistory(history);
+    }
+
+    @Value("${hospital.changes.heartbeat-seconds:15}")
+    public void setChangeFeedHeartbeatSeconds(long heartbeatSeconds) {
+        admissionChangeFeed.setHeartbeatInterval(Duration.ofSeconds(heartbeatSeconds));
+    }
+
+    // /AdmissionChanges connections are closed after this long; clients reconnect and resume from their last event
+    @Value("${hospital.changes.timeout-minutes:30}")
+    public void setChangeFeedTimeoutMinutes(long timeoutMinutes) {
+        this.changeFeedTimeout = Duration.ofMinutes(timeoutMinutes);
+    }
+
+    // Bounded pool for upstream calls issued in parallel on behalf of a single request
+    private static void resize(ThreadPoolExecutor executor, int threads) {
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+    }
+
+    private static ThreadPoolExecutor newUpstreamExecutor(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "upstream-fetch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // Retrieve a snapshot of an API endpoint, served from the snapshot cache when it is fresh enough (null if unavailable)
+    private UpstreamSnapshotCache.Snapshot fetchSnapshotFromEndpoint(String endpoint) {
+        return snapshotCache.get(endpoint);
+    }
+
+    // Download data from an API endpoint, bypassing the snapshot cache
+    private ResponseEntity<String> downloadDataFromEndpoint(String endpoint) {
+        ResponseEntity<String> responseEntity = getFromUpstream(endpoint, endpoint);
+
+        if (responseEntity == null || responseEntity.getBody() == null || responseEntity.getBody().isEmpty()) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
         return responseEntity;
     }
 
-    // Common method to map JSON response to list of maps
-    private List<Map<String, Object>> mapResponseToListOfMaps(ResponseEntity<String> responseEntity) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        return mapper.readValue(responseEntity.getBody(), new TypeReference<>() {});
+    // GET an upstream path. Concurrent requests for the same URL share one call, so a burst costs the upstream one
+    // download; the call's time, status and body size are recorded once, under the path template.
+    private ResponseEntity<String> getFromUpstream(String path, String pathTemplate) {
+        String url = apiBaseUrl + path;
+        return upstreamCalls.execute(url, () -> callUpstream(url, pathTemplate), () -> metrics.recordCoalescedUpstreamCall(pathTemplate));
+    }
+
+    private ResponseEntity<String> callUpstream(String url, String pathTemplate) {
+        long start = System.nanoTime();
+        String status = "NONE";
+        long bodyBytes = -1;
+        try {
+            ResponseEntity<String> responseEntity = restTemplate.getForEntity(url, String.class);
+            if (responseEntity != null) {
+                status = Integer.toString(responseEntity.getStatusCode().value());
+                // Characters rather than bytes, which is the same for the ASCII JSON the upstream returns
+                bodyBytes = responseEntity.getBody() != null ? responseEntity.getBody().length() : 0;
+            }
+            return responseEntity;
+        } catch (RestClientResponseException e) {
+            status = Integer.toString(e.getStatusCode().value());
+            throw e;
+        } catch (RuntimeException e) {
+            status = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            metrics.recordUpstreamCall(pathTemplate, status, bodyBytes, System.nanoTime() - start);
+        }
+    }
+
+    // Typed records of each dataset, parsed once per snapshot and shared by every request reading it.
+    // Admissions are held as columns, which F1 and F2 read from.
+    private AdmissionColumns admissionsOf(UpstreamSnapshotCache.Snapshot snapshot) throws IOException {
+        return snapshot.view("admissionColumns", body -> metrics.timeParse("Admissions", () -> HospitalJson.parseAdmissionColumns(body)));
+    }
+
+    private List<Allocation> allocationsOf(UpstreamSnapshotCache.Snapshot snapshot) throws IOException {
+        return snapshot.view("allocations", body -> metrics.timeParse("Allocations", () -> HospitalJson.parseAllocations(body)));
+    }
+
+    private List<Employee> employeesOf(UpstreamSnapshotCache.Snapshot snapshot) throws IOException {
+        return snapshot.view("employees", body -> metrics.timeParse("Employees", () -> HospitalJson.parseEmployees(body)));
+    }
+
+    // First record per employee ID in the bulk Employees list
+    private IntObjectMap<Employee> employeesByIdOf(UpstreamSnapshotCache.Snapshot snapshot) throws IOException {
+        return snapshot.view("employeesById", body -> {
+            List<Employee> employees = employeesOf(snapshot);
+            IntObjectMap<Employee> employeesById = new IntObjectMap<>(employees.size());
+            for (Employee employee : employees) {
+                if (employeesById.get(employee.id()) == null) {
+                    employeesById.put(employee.id(), employee);
+                }
+            }
+            return employeesById;
+        });
+    }
+
+    private AdmissionCountLeaderboard admissionCountsOf(UpstreamSnapshotCache.Snapshot snapshot) throws IOException {
+        return snapshot.view("admissionCounts", body -> AdmissionCountLeaderboard.build(allocationsOf(snapshot), parallelCountThreshold));
+    }
+
+    // Retrieve snapshots of several independent API endpoints concurrently, in the order given (null where unavailable)
+    private List<UpstreamSnapshotCache.Snapshot> fetchSnapshotsFromEndpoints(long deadlineNanos, String... endpoints) throws TimeoutException {
+        List<Future<UpstreamSnapshotCache.Snapshot>> requests = new ArrayList<>();
+        for (String endpoint : endpoints) {
+            requests.add(upstreamExecutor.submit(() -> fetchSnapshotFromEndpoint(endpoint)));
+        }
+        return awaitAll(requests, deadlineNanos);
+    }
+
+    // Fetch Employees/{id} for several employees at once, in the order given (null where the upstream returned nothing)
+    private List<Employee> fetchEmployeeDetails(List<Integer> employeeIDs, long deadlineNanos) throws IOException, TimeoutException {
+        List<Future<ResponseEntity<String>>> requests = new ArrayList<>();
+        for (Integer employeeID : employeeIDs) {
+            requests.add(requestEmployee(employeeID));
+        }
+
+        List<Employee> employeeDetails = new ArrayList<>();
+        for (ResponseEntity<String> employeeResponse : awaitAll(requests, deadlineNanos)) {
+            if (employeeResponse != null && employeeResponse.getBody() != null) {
+                employeeDetails.add(metrics.timeParse("Employees/{id}", () -> HospitalJson.parseEmployee(employeeResponse.getBody())));
+            } else {
+                employeeDetails.add(null);
+            }
+        }
+        return employeeDetails;
+    }
+
+    // Employees/{id} on the upstream pool, hedged when enabled. The hedge goes straight to the upstream rather than
+    // through getFromUpstream, which would only have it join the stalled call it is meant to race, and runs on the
+    // hedge pool rather than this one, where it would queue behind it.
+    private Future<ResponseEntity<String>> requestEmployee(int employeeID) {
+        String path = "Employees/" + employeeID;
+        if (!hedgingEnabled) {
+            return upstreamExecutor.submit(() -> getFromUpstream(path, "Employees/{id}"));
+        }
+        return hedgedEmployeeRequests.submit(upstreamExecutor,
+                () -> getFromUpstream(path, "Employees/{id}"),
+                () -> callUpstream(apiBaseUrl + path, "Employees/{id}"));
+    }
+
+    // Wait for every upstream call until the request deadline; on failure or timeout the outstanding calls are cancelled.
+    // A cancelled call that was sharing a coalesced upstream call only stops waiting for it (see SingleFlight).
+    private static <T> List<T> awaitAll(List<Future<T>> requests, long deadlineNanos) throws TimeoutException {
+        List<T> results = new ArrayList<>();
+        try {
+            for (Future<T> request : requests) {
+                results.add(request.get(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS));
+            }
+            return results;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting for the upstream API");
+        } finally {
+            if (results.size() < requests.size()) {
+                requests.forEach(request -> request.cancel(true));
+            }
+        }
+    }
+
+    private long requestDeadlineNanos() {
+        return System.nanoTime() + requestDeadline.toNanos();
     }
 
     // Common method to convert list of maps to JSON string
     private String convertListOfMapsToJsonString(List<Map<String, Object>> data) throws JsonProcessingException {
-        ObjectMapper mapper = new ObjectMapper();
-        return mapper.writeValueAsString(data);
+        return HospitalJson.MAPPER.writeValueAsString(data);
     }
 
     // F1 - A list of all admissions for a specific patient
     @GetMapping("/Admission/{patientID}")
     public ResponseEntity<String> getAdmissionsForSpecificPatient(@PathVariable String patientID) {
-        ResponseEntity<String> responseEntity = fetchDataFromEndpoint("Admissions");
+        UpstreamSnapshotCache.Snapshot snapshot = fetchSnapshotFromEndpoint("Admissions");
 
-        if (responseEntity.getStatusCode() != HttpStatus.OK) {
-            return responseEntity;
+        if (snapshot == null) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        String responseBody = responseEntity.getBody();
-        ObjectMapper mapper = new ObjectMapper();
-
         try {
-            List<Map<String, Object>> admissions = mapResponseToListOfMaps(responseEntity);
-
-            List<Map<String, Object>> filteredAdmissions = admissions.stream()
-                    .filter(admission -> admission.containsKey("patientID") && admission.get("patientID").toString().equals(patientID))
-                    .toList();
+            String patientAdmissions = patientAdmissionsIndexOf(snapshot).lookup(patientID);
 
-
-            if (filteredAdmissions.isEmpty()) {
+            if (patientAdmissions == null) {
                 return new ResponseEntity<>("No admissions for patient found with ID " + patientID, HttpStatus.NOT_FOUND);
             }
 
+            String etag = EntityTags.of("F1", patientID, snapshot);
+            if (EntityTags.notModified(etag)) {
+                return notModified(etag);
+            }
+
+            return ResponseEntity.ok().eTag(etag).body(patientAdmissions);
+        } catch (IOException e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // F1 for many patients at once: ?patientIDs=1,2,3
+    @GetMapping(value = "/Admissions/batch", params = "patientIDs")
+    public ResponseEntity<String> getAdmissionsForPatients(@RequestParam String patientIDs) {
+        return admissionsForPatients(Arrays.asList(patientIDs.split(",", -1)), true);
+    }
+
+    // F1 for many patients at once, with the IDs posted as a JSON array
+    @PostMapping("/Admissions/batch")
+    public ResponseEntity<String> postAdmissionsForPatients(@RequestBody List<String> patientIDs) {
+        return admissionsForPatients(patientIDs, false);
+    }
+
+    // Every ID is a lookup in the same per-snapshot index as F1, so the Admissions data is only read once whatever
+    // the number of patients. Patients without admissions are null in the response rather than failing it with a 404.
+    private ResponseEntity<String> admissionsForPatients(List<String> patientIDs, boolean conditional) {
+        if (patientIDs.isEmpty() || patientIDs.size() > maxBatchSize) {
+            return new ResponseEntity<>("Between 1 and " + maxBatchSize + " patient IDs must be given", HttpStatus.BAD_REQUEST);
+        }
+
+        UpstreamSnapshotCache.Snapshot snapshot = fetchSnapshotFromEndpoint("Admissions");
 
-            List<Map<String, Object>> formattedAdmissions = new ArrayList<>();
-            for (Map<String, Object> admission : filteredAdmissions) {
-                LinkedHashMap<String, Object> formattedAdmission = new LinkedHashMap<>();
-                formattedAdmission.put("admissionId", admission.get("id"));
-                formattedAdmission.put("admissionDate", admission.get("admissionDate"));
-                formattedAdmission.put("dischargeDate", admission.get("dischargeDate"));
-                formattedAdmissions.add(formattedAdmission);
+        if (snapshot == null) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        String etag = EntityTags.of("F1-batch", String.join(",", patientIDs), snapshot);
+        if (conditional && EntityTags.notModified(etag)) {
+            return notModified(etag);
+        }
+
+        try {
+            PatientAdmissionsIndex index = patientAdmissionsIndexOf(snapshot);
+
+            // Repeated IDs are answered once, where they first appear
+            Map<String, String> admissionsByPatient = new LinkedHashMap<>();
+            for (String patientID : patientIDs) {
+                String trimmed = patientID == null ? "" : patientID.trim();
+                if (!admissionsByPatient.containsKey(trimmed)) {
+                    admissionsByPatient.put(trimmed, index.lookup(trimmed));
+                }
             }
 
-            String filteredResponse = convertListOfMapsToJsonString(formattedAdmissions);
+            String jsonResponse = metrics.timeSerialise("F1-batch", () -> HospitalJson.writeAdmissionsByPatient(admissionsByPatient));
 
-            return new ResponseEntity<>(filteredResponse, HttpStatus.OK);
+            return ResponseEntity.ok().eTag(etag).body(jsonResponse);
         } catch (IOException e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    private PatientAdmissionsIndex patientAdmissionsIndexOf(UpstreamSnapshotCache.Snapshot snapshot) throws IOException {
+        return snapshot.view("patientAdmissionsIndex", body -> {
+            AdmissionColumns admissions = admissionsOf(snapshot);
+            // The index holds each patient's response body ready-made, so building it is F1's serialisation
+            return metrics.timeSerialise("F1", () -> PatientAdmissionsIndex.build(admissions));
+        });
+    }
+
     // F2 - A list of patients currently admitted (who have not been discharged yet)
     @GetMapping("/CurrentAdmissions")
     public ResponseEntity<String> getCurrentAdmissions() {
-        ResponseEntity<String> responseEntity = fetchDataFromEndpoint("Admissions");
+        UpstreamSnapshotCache.Snapshot snapshot = fetchSnapshotFromEndpoint("Admissions");
 
-        if (responseEntity.getStatusCode() != HttpStatus.OK) {
-            return responseEntity;
+        if (snapshot == null) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        String responseBody = responseEntity.getBody();
-        ObjectMapper mapper = new ObjectMapper();
+        try {
+            CurrentAdmissionsView.Listing currentAdmissions = currentAdmissionsOf(snapshot);
+
+            if (currentAdmissions.rows().isEmpty()) {
+                return new ResponseEntity<>("No patients currently admitted", HttpStatus.NOT_FOUND);
+            }
 
+            // Tagged with the version the listing was built from, which may be newer than the snapshot read above
+            String etag = EntityTags.ofVersion("F2", "", currentAdmissions.version());
+            if (EntityTags.notModified(etag)) {
+                return notModified(etag);
+            }
+
+            return ResponseEntity.ok().eTag(etag).body(currentAdmissions.body());
+        } catch (IOException e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // F2 (streaming) - rows are written to the response one at a time rather than as one string
+    @GetMapping(value = "/CurrentAdmissions", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamCurrentAdmissions() {
+        UpstreamSnapshotCache.Snapshot snapshot = fetchSnapshotFromEndpoint("Admissions");
+
+        if (snapshot == null) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        CurrentAdmissionsView.Listing listing;
         try {
-            List<Map<String, Object>> admissions = mapResponseToListOfMaps(responseEntity);
+            listing = currentAdmissionsOf(snapshot);
+        } catch (IOException e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        List<Admission> currentAdmissions = listing.rows();
+        if (currentAdmissions.isEmpty()) {
+            return new ResponseEntity<>(streamText("No patients currently admitted"), HttpStatus.NOT_FOUND);
+        }
+
+        // The same bytes as the non-streaming response, so the same ETag
+        String etag = EntityTags.ofVersion("F2", "", listing.version());
+        if (EntityTags.notModified(etag)) {
+            return notModified(etag);
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .body(outputStream -> metrics.timeSerialise("F2", () -> {
+                    HospitalJson.streamArray(outputStream, currentAdmissions.stream(), HospitalJson::writeCurrentAdmission);
+                    return null;
+                }));
+    }
 
-            List<Map<String, Object>> filteredAdmissions = admissions.stream()
-                    .filter(admission -> admission.containsValue("0001-01-01T00:00:00")).toList();
+    // F2 (paged) - limit rows at a time; the cursor in each page's Link header fetches the next page of the same listing
+    @GetMapping(value = "/CurrentAdmissions", params = {"limit", "stream!=true"})
+    public ResponseEntity<String> getCurrentAdmissionsPage(@RequestParam int limit, @RequestParam(required = false) String cursor) {
+        if (limit < 1 || limit > maxPageSize) {
+            return new ResponseEntity<>("limit must be between 1 and " + maxPageSize, HttpStatus.BAD_REQUEST);
+        }
+        if (cursor != null) {
+            return nextPage("F2", "/CurrentAdmissions", cursor, limit, true, HospitalJson::writeCurrentAdmission);
+        }
 
-            if (filteredAdmissions.isEmpty()) {
+        UpstreamSnapshotCache.Snapshot snapshot = fetchSnapshotFromEndpoint("Admissions");
+
+        if (snapshot == null) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        try {
+            CurrentAdmissionsView.Listing currentAdmissions = currentAdmissionsOf(snapshot);
+
+            if (currentAdmissions.rows().isEmpty()) {
                 return new ResponseEntity<>("No patients currently admitted", HttpStatus.NOT_FOUND);
             }
 
-            List<Map<String, Object>> formattedAdmissions = new ArrayList<>();
-            for (Map<String, Object> admission : filteredAdmissions) {
-                LinkedHashMap<String, Object> formattedAdmission = new LinkedHashMap<>();
-                formattedAdmission.put("patientID", admission.get("id"));
-                formattedAdmission.put("admissionDate", admission.get("admissionDate"));
-                formattedAdmissions.add(formattedAdmission);
+            String etag = EntityTags.ofVersion("F2", "limit=" + limit, currentAdmissions.version());
+            if (EntityTags.notModified(etag)) {
+                return notModified(etag);
+            }
+
+            // Listings are immutable, so the view's own rows are pinned as they are
+            String versions = Long.toString(currentAdmissions.version());
+            List<Admission> rows = resultCursors.pin("F2", versions, currentAdmissions.rows());
+            return page("F2", "/CurrentAdmissions", versions, rows, 0, limit, HospitalJson::writeCurrentAdmission, etag);
+        } catch (IOException e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Bring the open admissions view up to the given snapshot if the listener has not already done so
+    private CurrentAdmissionsView.Listing currentAdmissionsOf(UpstreamSnapshotCache.Snapshot snapshot) throws IOException {
+        if (currentAdmissionsView.listing().version() < snapshot.version()) {
+            AdmissionColumns admissions = admissionsOf(snapshot);
+            metrics.timeSerialise("F2", () -> currentAdmissionsView.advanceTo(snapshot.version(), admissions));
+        }
+        return currentAdmissionsView.listing();
+    }
+
+    // Admissions of the patients admitted at a time, given as yyyy-MM-ddTHH:mm:ss
+    @GetMapping("/AdmissionsAt")
+    public ResponseEntity<String> getAdmissionsAt(@RequestParam String time) {
+        long at;
+        try {
+            at = HospitalJson.parseTime(time);
+        } catch (DateTimeParseException e) {
+            return new ResponseEntity<>("time must be a date-time such as 2024-01-31T09:00:00", HttpStatus.BAD_REQUEST);
+        }
+
+        return admissionsInPeriod("AdmissionsAt", time, index -> index.admittedAt(at), "No patients admitted at " + time);
+    }
+
+    // Admissions of the patients admitted at any time between two times, both inclusive
+    @GetMapping("/AdmissionsBetween")
+    public ResponseEntity<String> getAdmissionsBetween(@RequestParam String from, @RequestParam String to) {
+        long start;
+        long end;
+        try {
+            start = HospitalJson.parseTime(from);
+            end = HospitalJson.parseTime(to);
+        } catch (DateTimeParseException e) {
+            return new ResponseEntity<>("from and to must be date-times such as 2024-01-31T09:00:00", HttpStatus.BAD_REQUEST);
+        }
+        if (start > end) {
+            return new ResponseEntity<>("from must not be after to", HttpStatus.BAD_REQUEST);
+        }
+
+        return admissionsInPeriod("AdmissionsBetween", from + "/" + to, index -> index.admittedBetween(start, end),
+                "No patients admitted between " + from + " and " + to);
+    }
+
+    private ResponseEntity<String> admissionsInPeriod(String endpoint, String params, IntervalQuery query, String notFound) {
+        UpstreamSnapshotCache.Snapshot snapshot = fetchSnapshotFromEndpoint("Admissions");
+
+        if (snapshot == null) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        try {
+            AdmissionColumns admissions = admissionsOf(snapshot);
+            AdmissionIntervalIndex index = snapshot.view("admissionIntervals", body -> AdmissionIntervalIndex.build(admissions));
+
+            int[] rows = query.rows(index);
+
+            if (rows.length == 0) {
+                return new ResponseEntity<>(notFound, HttpStatus.NOT_FOUND);
+            }
+
+            String etag = EntityTags.of(endpoint, params, snapshot);
+            if (EntityTags.notModified(etag)) {
+                return notModified(etag);
             }
 
-            String filteredResponse = convertListOfMapsToJsonString(formattedAdmissions);
+            List<Admission> matches = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                matches.add(admissions.get(row));
+            }
+            String jsonResponse = metrics.timeSerialise(endpoint, () -> HospitalJson.writeArray(matches, HospitalJson::writeAdmission));
 
-            return new ResponseEntity<>(filteredResponse, HttpStatus.OK);
+            return ResponseEntity.ok().eTag(etag).body(jsonResponse);
         } catch (IOException e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    // Admissions, discharges and updates as server-sent events, as each new Admissions snapshot arrives. The
+    // Last-Event-ID header that EventSource sends on reconnecting, or ?since=, resumes after that event.
+    @GetMapping(value = "/AdmissionChanges", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAdmissionChanges(@RequestHeader(value = HttpHeaders.LAST_EVENT_ID, required = false) String lastEventId,
+                                             @RequestParam(required = false) String since) {
+        SseEmitter emitter = new SseEmitter(changeFeedTimeout.toMillis());
+        subscribeToAdmissionChanges(emitter, lastEventId != null ? lastEventId : since, event -> {
+            if (event.type().equals(AdmissionChangeFeed.HEARTBEAT)) {
+                emitter.send(SseEmitter.event().comment(""));
+            } else {
+                emitter.send(SseEmitter.event()
+                        .id(event.id())
+                        .name(event.type())
+                        .data(HospitalJson.writeObject(event, HospitalJson::writeAdmissionChange)));
+            }
+        });
+        return emitter;
+    }
+
+    // The same events as newline-delimited JSON, one object per line; blank lines are heartbeats
+    @GetMapping(value = "/AdmissionChanges", params = "format=ndjson")
+    public ResponseEntity<ResponseBodyEmitter> streamAdmissionChangesAsNdjson(@RequestParam(required = false) String since) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(changeFeedTimeout.toMillis());
+        subscribeToAdmissionChanges(emitter, since, event -> {
+            if (event.type().equals(AdmissionChangeFeed.HEARTBEAT)) {
+                emitter.send("\n");
+            } else {
+                emitter.send(HospitalJson.writeObject(event, HospitalJson::writeAdmissionChange) + "\n");
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+    }
+
+    private void subscribeToAdmissionChanges(ResponseBodyEmitter emitter, String lastEventId, EventWriter writer) {
+        AdmissionChangeFeed.Subscription subscription = admissionChangeFeed.subscribe(lastEventId, new AdmissionChangeFeed.EventSink() {
+            @Override
+            public void send(AdmissionChangeFeed.Event event) throws IOException {
+                writer.write(event);
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+    }
+
+    // Checks for a new Admissions snapshot on behalf of /AdmissionChanges subscribers, who may be the only clients
+    private void pollAdmissions() {
+        UpstreamSnapshotCache.Snapshot snapshot = fetchSnapshotFromEndpoint("Admissions");
+        if (snapshot != null) {
+            try {
+                currentAdmissionsOf(snapshot);
+            } catch (IOException e) {
+                // Left for the next poll to try again
+            }
+        }
+    }
+
     // F3 - Identify which member of staff has the most admissions
     @GetMapping("/EmployeeWithMostAdmissions")
     public ResponseEntity<String> getEmployeeWithMostAdmissions() {
-        ResponseEntity<String> allocationsResponse = fetchDataFromEndpoint("Allocations");
+        // The bulk Employees list is fetched alongside Allocations, so Employees/{id} is only needed if it lacks the employee
+        long deadlineNanos = requestDeadlineNanos();
+        List<UpstreamSnapshotCache.Snapshot> snapshots;
+        try {
+            snapshots = fetchSnapshotsFromEndpoints(deadlineNanos, "Allocations", "Employees");
+        } catch (TimeoutException e) {
+            return new ResponseEntity<>(HttpStatus.GATEWAY_TIMEOUT);
+        }
+
+        UpstreamSnapshotCache.Snapshot allocationsSnapshot = snapshots.get(0);
+        UpstreamSnapshotCache.Snapshot employeesSnapshot = snapshots.get(1);
 
-        if (allocationsResponse.getStatusCode() != HttpStatus.OK) {
-            return allocationsResponse;
+        if (allocationsSnapshot == null) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        ObjectMapper mapper = new ObjectMapper();
-        List<Map<String, Object>> allocations;
+        AdmissionCountLeaderboard leaderboard;
 
         try {
-            allocations = mapResponseToListOfMaps(allocationsResponse);
+            leaderboard = admissionCountsOf(allocationsSnapshot);
         } catch (IOException e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        List<Integer> employeeIDs = allocations.stream()
-                .map(admission -> (Integer) admission.get("employeeID"))
-                .toList();
+        // Ties go to the lowest employee ID
+        AdmissionCountLeaderboard.Ranking leader = leaderboard.leader();
 
-        Map<Integer, Long> counts = employeeIDs.stream()
-                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        if (leader != null) {
+            int employeeID = leader.employeeID();
 
-        Optional<Map.Entry<Integer, Long>> maxEntry = counts.entrySet()
-                .stream()
-                .max(Map.Entry.comparingByValue());
+            Employee employee = findEmployee(employeesSnapshot, employeeID);
+            if (employee != null && employee.hasDetails()) {
+                // Only tagged when answered from the two snapshots; an Employees/{id} answer has no version
+                String etag = EntityTags.of("F3", "", allocationsSnapshot, employeesSnapshot);
+                if (EntityTags.notModified(etag)) {
+                    return notModified(etag);
+                }
+                try {
+                    return ResponseEntity.ok().eTag(etag).body(metrics.timeSerialise("F3", () -> HospitalJson.writeObject(employee, HospitalJson::writeEmployee)));
+                } catch (IOException e) {
+                    return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+                }
+            }
 
-        if (maxEntry.isPresent()) {
-            Integer employeeID = maxEntry.get().getKey();
-            ResponseEntity<String> employeeResponse = restTemplate.getForEntity(API_BASE_URL + "Employees/" + employeeID, String.class);
-            if (employeeResponse.getBody() != null && !employeeResponse.getBody().isEmpty()) {
-                return new ResponseEntity<>(employeeResponse.getBody(), HttpStatus.OK);
+            ResponseEntity<String> employeeResponse;
+            try {
+                employeeResponse = awaitAll(List.of(requestEmployee(employeeID)), deadlineNanos).get(0);
+            } catch (TimeoutException e) {
+                return new ResponseEntity<>(HttpStatus.GATEWAY_TIMEOUT);
+            }
+            if (employeeResponse != null && employeeResponse.getBody() != null && !employeeResponse.getBody().isEmpty()) {
+                return ResponseEntity.ok(employeeResponse.getBody());
             }
         }
 
         return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
 
+    // The employee's record in the bulk Employees list, or null if the list is unavailable or does not have it
+    private Employee findEmployee(UpstreamSnapshotCache.Snapshot employeesSnapshot, int employeeID) {
+        if (employeesSnapshot == null) {
+            return null;
+        }
+        try {
+            return employeesByIdOf(employeesSnapshot).get(employeeID);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Employees ranked by number of admissions, highest first; ties are ordered by employee ID
+    @GetMapping("/EmployeesByAdmissionCount")
+    public ResponseEntity<String> getEmployeesByAdmissionCount(@RequestParam(defaultValue = "10") int top) {
+        if (top < 1) {
+            return new ResponseEntity<>("top must be at least 1", HttpStatus.BAD_REQUEST);
+        }
+
+        long deadlineNanos = requestDeadlineNanos();
+        List<UpstreamSnapshotCache.Snapshot> snapshots;
+        try {
+            snapshots = fetchSnapshotsFromEndpoints(deadlineNanos, "Allocations", "Employees");
+        } catch (TimeoutException e) {
+            return new ResponseEntity<>(HttpStatus.GATEWAY_TIMEOUT);
+        }
+
+        UpstreamSnapshotCache.Snapshot allocationsSnapshot = snapshots.get(0);
+        UpstreamSnapshotCache.Snapshot employeesSnapshot = snapshots.get(1);
+
+        if (allocationsSnapshot == null) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        String etag = EntityTags.of("EmployeesByAdmissionCount", Integer.toString(top), allocationsSnapshot, employeesSnapshot);
+        if (EntityTags.notModified(etag)) {
+            return notModified(etag);
+        }
+
+        try {
+            List<EmployeeAdmissionCount> rows = new ArrayList<>();
+            for (AdmissionCountLeaderboard.Ranking ranking : admissionCountsOf(allocationsSnapshot).top(top)) {
+                Employee employee = findEmployee(employeesSnapshot, ranking.employeeID());
+                rows.add(employee != null
+                        ? new EmployeeAdmissionCount(ranking.employeeID(), employee.surname(), employee.forename(), ranking.admissionCount())
+                        : new EmployeeAdmissionCount(ranking.employeeID(), null, null, ranking.admissionCount()));
+            }
+
+            String jsonResponse = metrics.timeSerialise("EmployeesByAdmissionCount", () -> HospitalJson.writeArray(rows, HospitalJson::writeEmployeeAdmissionCount));
+
+            return ResponseEntity.ok().eTag(etag).body(jsonResponse);
+        } catch (IOException e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     // F4 - A list of staff who have no (zero) admissions
     @GetMapping("/EmployeesWithZeroAdmissions")
     public ResponseEntity<String> getEmployeesWithZeroAdmissions() {
-        ResponseEntity<String> allocationsResponse = fetchDataFromEndpoint("Allocations");
-        if (allocationsResponse.getStatusCode() != HttpStatus.OK ) {
+        long deadlineNanos = requestDeadlineNanos();
+        try {
+            List<UpstreamSnapshotCache.Snapshot> snapshots = fetchSnapshotsFromEndpoints(deadlineNanos, "Allocations", "Employees");
+            if (snapshots.contains(null)) {
+                return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+
+            // Not tagged, as the rows may come from Employees/{id} calls that no snapshot version covers
+            Stream<Employee> employeesWithZeroAdmissions = findEmployeesWithZeroAdmissions(snapshots.get(0), snapshots.get(1), deadlineNanos);
+
+            String jsonResponse = metrics.timeSerialise("F4", () -> HospitalJson.writeArray(employeesWithZeroAdmissions.toList(), HospitalJson::writeEmployee));
+
+            return ResponseEntity.ok(jsonResponse);
+        } catch (IOException e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (TimeoutException e) {
+            return new ResponseEntity<>(HttpStatus.GATEWAY_TIMEOUT);
+        }
+    }
+
+    // F4 (streaming) - rows are written to the response as the filter produces them, without building the result in memory
+    @GetMapping(value = "/EmployeesWithZeroAdmissions", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamEmployeesWithZeroAdmissions() {
+        long deadlineNanos = requestDeadlineNanos();
+        Stream<Employee> employeesWithZeroAdmissions;
+        try {
+            List<UpstreamSnapshotCache.Snapshot> snapshots = fetchSnapshotsFromEndpoints(deadlineNanos, "Allocations", "Employees");
+            if (snapshots.contains(null)) {
+                return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+
+            employeesWithZeroAdmissions = findEmployeesWithZeroAdmissions(snapshots.get(0), snapshots.get(1), deadlineNanos);
+        } catch (IOException e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (TimeoutException e) {
+            return new ResponseEntity<>(HttpStatus.GATEWAY_TIMEOUT);
         }
 
-        ResponseEntity<String> employeesResponse = fetchDataFromEndpoint("Employees");
-        if ( employeesResponse.getStatusCode() != HttpStatus.OK ) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> metrics.timeSerialise("F4", () -> {
+                    HospitalJson.streamArray(outputStream, employeesWithZeroAdmissions, HospitalJson::writeEmployee);
+                    return null;
+                }));
+    }
+
+    // F4 (paged) - limit rows at a time; the cursor in each page's Link header fetches the next page of the same result
+    @GetMapping(value = "/EmployeesWithZeroAdmissions", params = {"limit", "stream!=true"})
+    public ResponseEntity<String> getEmployeesWithZeroAdmissionsPage(@RequestParam int limit, @RequestParam(required = false) String cursor) {
+        if (limit < 1 || limit > maxPageSize) {
+            return new ResponseEntity<>("limit must be between 1 and " + maxPageSize, HttpStatus.BAD_REQUEST);
+        }
+        if (cursor != null) {
+            return nextPage("F4", "/EmployeesWithZeroAdmissions", cursor, limit, false, HospitalJson::writeEmployee);
+        }
+
+        long deadlineNanos = requestDeadlineNanos();
+        try {
+            List<UpstreamSnapshotCache.Snapshot> snapshots = fetchSnapshotsFromEndpoints(deadlineNanos, "Allocations", "Employees");
+            if (snapshots.contains(null)) {
+                return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+
+            // Filtered once per pair of snapshots; later first pages on the same versions reuse the pinned result
+            String versions = snapshots.get(0).version() + "-" + snapshots.get(1).version();
+            List<Employee> rows = resultCursors.pinned("F4", versions);
+            if (rows == null) {
+                rows = resultCursors.pin("F4", versions, findEmployeesWithZeroAdmissions(snapshots.get(0), snapshots.get(1), deadlineNanos).toList());
+            }
+            return page("F4", "/EmployeesWithZeroAdmissions", versions, rows, 0, limit, HospitalJson::writeEmployee, null);
+        } catch (IOException e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (TimeoutException e) {
+            return new ResponseEntity<>(HttpStatus.GATEWAY_TIMEOUT);
         }
+    }
 
-        ObjectMapper mapper = new ObjectMapper();
-        List<Map<String, Object>> admissions;
-        List<Map<String, Object>> employees;
+    // A page after the first, read from the result pinned by the first page; 410 Gone once that has been dropped.
+    // Tagged only when the versions in the cursor fully determine the pinned rows, so pinning them again after they
+    // were dropped gives the same rows.
+    private <T> ResponseEntity<String> nextPage(String endpoint, String path, String cursor, int limit, boolean tagged,
+                                                HospitalJson.RowWriter<T> rowWriter) {
+        ResultCursors.Position position;
+        try {
+            position = resultCursors.decode(endpoint, cursor);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>("Invalid cursor", HttpStatus.BAD_REQUEST);
+        }
+
+        List<T> rows = resultCursors.pinned(endpoint, position.versions());
+        if (rows == null) {
+            return new ResponseEntity<>("Cursor has expired, start again without a cursor", HttpStatus.GONE);
+        }
+        if (position.offset() > rows.size()) {
+            return new ResponseEntity<>("Invalid cursor", HttpStatus.BAD_REQUEST);
+        }
+
+        // Pinned rows never change, so a page is fully identified by its cursor and limit
+        String etag = tagged ? EntityTags.of(endpoint, cursor + "&limit=" + limit) : null;
+        if (etag != null && EntityTags.notModified(etag)) {
+            return notModified(etag);
+        }
 
         try {
-            admissions = mapResponseToListOfMaps(allocationsResponse);
-            employees = mapResponseToListOfMaps(employeesResponse);
+            return page(endpoint, path, position.versions(), rows, position.offset(), limit, rowWriter, etag);
         } catch (IOException e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
+    }
+
+    // Writes rows [offset, offset + limit) and, if there are more, a Link header to the next page; etag may be null
+    private <T> ResponseEntity<String> page(String endpoint, String path, String versions, List<T> rows, int offset, int limit,
+                                            HospitalJson.RowWriter<T> rowWriter, String etag) throws IOException {
+        int end = (int) Math.min(rows.size(), (long) offset + limit);
+        List<T> pageRows = rows.subList(offset, end);
+        String jsonResponse = metrics.timeSerialise(endpoint, () -> HospitalJson.writeArray(pageRows, rowWriter));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (etag != null) {
+            response.eTag(etag);
+        }
+        if (end < rows.size()) {
+            String next = path + "?limit=" + limit + "&cursor=" + resultCursors.cursor(endpoint, versions, end);
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(jsonResponse);
+    }
 
-        Set<Integer> employeeIDsInAdmissions = admissions.stream()
-                .map(admission -> (Integer) admission.get("employeeID"))
-                .collect(Collectors.toSet());
+    // Employees without any allocation, in bulk list order.
+    // Answered from the bulk Employees list, only records missing detail fields are fetched individually.
+    private Stream<Employee> findEmployeesWithZeroAdmissions(UpstreamSnapshotCache.Snapshot allocationsSnapshot,
+                                                             UpstreamSnapshotCache.Snapshot employeesSnapshot,
+                                                             long deadlineNanos) throws IOException, TimeoutException {
+        AdmissionCountLeaderboard admissionCounts = admissionCountsOf(allocationsSnapshot);
+        List<Employee> employees = employeesOf(employeesSnapshot);
 
-        List<Map<String, Object>> employeesWithZeroAdmissions = employees.stream()
-                .filter(employee -> !employeeIDsInAdmissions.contains(employee.get("id")))
+        List<Integer> incompleteEmployeeIDs = employees.stream()
+                .filter(employee -> !admissionCounts.hasAdmissions(employee.id()) && !employee.hasDetails())
+                .map(Employee::id)
                 .toList();
 
-        List<Map<String, Object>> employeeDetails = new ArrayList<>();
-        for (Map<String, Object> employee : employeesWithZeroAdmissions) {
-            Integer employeeID = (Integer) employee.get("id");
-            ResponseEntity<String> employeeResponse = restTemplate.getForEntity(API_BASE_URL + "Employees/" + employeeID, String.class);
-            if (employeeResponse.getBody() != null) {
-                try {
-                    Map<String, Object> employeeDetail = mapper.readValue(employeeResponse.getBody(), new TypeReference<>() {});
-                    employeeDetails.add(employeeDetail);
-                } catch (IOException e) {
-                    return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        IntObjectMap<Employee> fetchedDetails = new IntObjectMap<>(incompleteEmployeeIDs.size());
+        if (!incompleteEmployeeIDs.isEmpty()) {
+            List<Employee> employeeDetails = fetchEmployeeDetails(incompleteEmployeeIDs, deadlineNanos);
+            for (int i = 0; i < incompleteEmployeeIDs.size(); i++) {
+                if (employeeDetails.get(i) != null) {
+                    fetchedDetails.put(incompleteEmployeeIDs.get(i), employeeDetails.get(i));
                 }
             }
         }
 
-        String jsonResponse;
+        return employees.stream()
+                .filter(employee -> !admissionCounts.hasAdmissions(employee.id()))
+                .map(employee -> employee.hasDetails() ? employee : fetchedDetails.get(employee.id()))
+                .filter(Objects::nonNull);
+    }
+
+    // 304 Not Modified for a client that already holds the current representation
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    // Plain-text body for the streaming variants' error responses
+    private static StreamingResponseBody streamText(String text) {
+        return outputStream -> outputStream.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Hit/miss/refresh-age statistics of the upstream snapshot cache
+    @GetMapping("/CacheStats")
+    public ResponseEntity<String> getCacheStats() {
         try {
-            jsonResponse = convertListOfMapsToJsonString(employeeDetails);
+            return new ResponseEntity<>(convertListOfMapsToJsonString(snapshotCache.getStats()), HttpStatus.OK);
         } catch (JsonProcessingException e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
-
-        return new ResponseEntity<>(jsonResponse, HttpStatus.OK);
     }
 
 
@@ -234,6 +1013,14 @@ public class HospitalController {
         String apiUrl = API_BASE_URL + "Employees/" + id;
         return restTemplate.getForEntity(apiUrl, String.class);
     }*/
+
+    private interface IntervalQuery {
+        int[] rows(AdmissionIntervalIndex index);
+    }
+
+    private interface EventWriter {
+        void write(AdmissionChangeFeed.Event event) throws IOException;
+    }
 }
 
 
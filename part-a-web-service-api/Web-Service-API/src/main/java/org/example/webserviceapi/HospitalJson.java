@@ -0,0 +1,466 @@
+package org.example.webserviceapi;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+
+// Parsing of the upstream datasets into typed records, and writing of the rows the endpoints return.
+// Records are read token by token with one shared reader, so no intermediate maps or boxed values are created,
+// and upstream date-times are converted once into epoch seconds (treating the local date-time as UTC). Admission dates
+// in any other form than yyyy-MM-ddTHH:mm:ss keep their text as well, so they are written back out unchanged.
+public final class HospitalJson {
+
+    public static final int MISSING_ID = Integer.MIN_VALUE;
+    public static final long MISSING_TIME = Long.MIN_VALUE;
+
+    public static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectReader READER = MAPPER.reader();
+
+    private static final long SECONDS_PER_DAY = 86400;
+
+    private HospitalJson() {
+    }
+
+    public static List<Admission> parseAdmissions(String json) throws IOException {
+        List<Admission> admissions = new ArrayList<>();
+        readAdmissions(json, (id, admissionDate, admissionDateText, dischargeDate, dischargeDateText, patientID) ->
+                admissions.add(new Admission(id, admissionDate, dischargeDate, patientID, admissionDateText, dischargeDateText)));
+        return admissions;
+    }
+
+    // The same records straight into columns, without a record object per row
+    public static AdmissionColumns parseAdmissionColumns(String json) throws IOException {
+        AdmissionColumns.Builder columns = new AdmissionColumns.Builder();
+        readAdmissions(json, columns::add);
+        return columns.build();
+    }
+
+    private static void readAdmissions(String json, AdmissionSink sink) throws IOException {
+        try (JsonParser parser = READER.createParser(json)) {
+            startArray(parser);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                int id = MISSING_ID;
+                int patientID = MISSING_ID;
+                long admissionDate = MISSING_TIME;
+                long dischargeDate = MISSING_TIME;
+                String admissionDateText = null;
+                String dischargeDateText = null;
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "id" -> id = readInt(parser);
+                        case "patientID" -> patientID = readInt(parser);
+                        case "admissionDate" -> {
+                            admissionDate = readTime(parser);
+                            admissionDateText = unusualTimeText(parser, admissionDate);
+                        }
+                        case "dischargeDate" -> {
+                            dischargeDate = readTime(parser);
+                            dischargeDateText = unusualTimeText(parser, dischargeDate);
+                        }
+                        default -> parser.skipChildren();
+                    }
+                }
+                sink.add(id, admissionDate, admissionDateText, dischargeDate, dischargeDateText, patientID);
+            }
+            endArray(parser);
+        }
+    }
+
+    public static List<Allocation> parseAllocations(String json) throws IOException {
+        List<Allocation> allocations = new ArrayList<>();
+        try (JsonParser parser = READER.createParser(json)) {
+            startArray(parser);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                int id = MISSING_ID;
+                int admissionID = MISSING_ID;
+                int employeeID = MISSING_ID;
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "id" -> id = readInt(parser);
+                        case "admissionID" -> admissionID = readInt(parser);
+                        case "employeeID" -> employeeID = readInt(parser);
+                        // startTime and endTime among them, which no endpoint reads
+                        default -> parser.skipChildren();
+                    }
+                }
+                allocations.add(new Allocation(id, admissionID, employeeID));
+            }
+            endArray(parser);
+        }
+        return allocations;
+    }
+
+    public static List<Employee> parseEmployees(String json) throws IOException {
+        List<Employee> employees = new ArrayList<>();
+        try (JsonParser parser = READER.createParser(json)) {
+            startArray(parser);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                employees.add(readEmployee(parser, json));
+            }
+            endArray(parser);
+        }
+        return employees;
+    }
+
+    // A single Employees/{id} record
+    public static Employee parseEmployee(String json) throws IOException {
+        try (JsonParser parser = READER.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected an employee object");
+            }
+            return readEmployee(parser, json);
+        }
+    }
+
+    // The parser is on the record's START_OBJECT; json is the text it reads, from which the record is kept as it is
+    private static Employee readEmployee(JsonParser parser, String json) throws IOException {
+        long start = parser.getTokenLocation().getCharOffset();
+        int id = MISSING_ID;
+        String surname = null;
+        String forename = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> id = readInt(parser);
+                case "surname" -> surname = parser.getValueAsString();
+                case "forename" -> forename = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+        long end = parser.getTokenLocation().getCharOffset() + 1;
+        String record = start >= 0 && end > start && end <= json.length() ? json.substring((int) start, (int) end) : null;
+        return new Employee(id, surname, forename, record);
+    }
+
+    private static void startArray(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Expected an array of records");
+        }
+    }
+
+    private static void endArray(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.END_ARRAY) {
+            throw new JsonParseException(parser, "Expected only objects in the array of records");
+        }
+    }
+
+    private static int readInt(JsonParser parser) throws IOException {
+        int value = parser.getValueAsInt(MISSING_ID);
+        parser.skipChildren();
+        return value;
+    }
+
+    // MISSING_TIME for a date that is missing or cannot be parsed; the text of the latter is kept by unusualTimeText
+    private static long readTime(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            parser.skipChildren();
+            return MISSING_TIME;
+        }
+        try {
+            return parseTime(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        } catch (DateTimeParseException e) {
+            return MISSING_TIME;
+        }
+    }
+
+    // The text of the date-time just read as value, unless formatTime gives back exactly that text, as it does for the
+    // usual yyyy-MM-ddTHH:mm:ss; kept too when it could not be parsed at all, so it is written back as it came.
+    // Null for a missing date.
+    private static String unusualTimeText(JsonParser parser, long value) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            return null;
+        }
+        if (value != MISSING_TIME && isUsualTime(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength())) {
+            return null;
+        }
+        return parser.getText();
+    }
+
+    private static boolean isUsualTime(char[] text, int offset, int length) {
+        if (length != 19 || text[offset + 4] != '-' || text[offset + 7] != '-' || text[offset + 10] != 'T'
+                || text[offset + 13] != ':' || text[offset + 16] != ':') {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            boolean separator = i == 4 || i == 7 || i == 10 || i == 13 || i == 16;
+            if (!separator && (text[offset + i] < '0' || text[offset + i] > '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // "yyyy-MM-ddTHH:mm:ss" to epoch seconds
+    public static long parseTime(String text) {
+        return parseTime(text.toCharArray(), 0, text.length());
+    }
+
+    private static long parseTime(char[] text, int offset, int length) {
+        if (isUsualTime(text, offset, length)) {
+            int year = digits(text, offset, 4);
+            int month = digits(text, offset + 5, 2);
+            int day = digits(text, offset + 8, 2);
+            int hour = digits(text, offset + 11, 2);
+            int minute = digits(text, offset + 14, 2);
+            int second = digits(text, offset + 17, 2);
+
+            if (year >= 0 && month >= 1 && month <= 12 && day >= 1 && day <= daysInMonth(year, month)
+                    && hour >= 0 && hour < 24 && minute >= 0 && minute < 60 && second >= 0 && second < 60) {
+                return daysFromCivil(year, month, day) * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second;
+            }
+        }
+
+        // Anything else the upstream might send (fractions of a second, a missing seconds field), to the second;
+        // one with an offset is taken at the instant it denotes
+        String value = new String(text, offset, length);
+        try {
+            return LocalDateTime.parse(value).toEpochSecond(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            try {
+                return OffsetDateTime.parse(value).toEpochSecond();
+            } catch (DateTimeParseException notAnOffsetDateTime) {
+                throw e;
+            }
+        }
+    }
+
+    // Epoch seconds to "yyyy-MM-ddTHH:mm:ss", the format the upstream uses
+    public static String formatTime(long epochSeconds) {
+        long days = Math.floorDiv(epochSeconds, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(epochSeconds, SECONDS_PER_DAY);
+
+        // Civil-from-days, see http://howardhinnant.github.io/date_algorithms.html
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        if (year < 0 || year > 9999) {
+            return LocalDateTime.ofEpochSecond(epochSeconds, 0, ZoneOffset.UTC).toString();
+        }
+
+        char[] text = new char[19];
+        putDigits(text, 0, (int) year, 4);
+        text[4] = '-';
+        putDigits(text, 5, month, 2);
+        text[7] = '-';
+        putDigits(text, 8, day, 2);
+        text[10] = 'T';
+        putDigits(text, 11, secondOfDay / 3600, 2);
+        text[13] = ':';
+        putDigits(text, 14, secondOfDay / 60 % 60, 2);
+        text[16] = ':';
+        putDigits(text, 17, secondOfDay % 60, 2);
+        return new String(text);
+    }
+
+    private static long daysFromCivil(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return leap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    private static int digits(char[] text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = text[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static void putDigits(char[] text, int offset, int value, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    // Row writers for the JSON the endpoints return
+
+    // F1 row: {"admissionId", "admissionDate", "dischargeDate"}
+    public static void writePatientAdmission(JsonGenerator generator, Admission admission) throws IOException {
+        generator.writeStartObject();
+        writeIntField(generator, "admissionId", admission.id());
+        writeTimeField(generator, "admissionDate", admission.admissionDate(), admission.admissionDateText());
+        writeTimeField(generator, "dischargeDate", admission.dischargeDate(), admission.dischargeDateText());
+        generator.writeEndObject();
+    }
+
+    // F2 row: {"patientID", "admissionDate"}, where patientID has always carried the admission's id
+    public static void writeCurrentAdmission(JsonGenerator generator, Admission admission) throws IOException {
+        generator.writeStartObject();
+        writeIntField(generator, "patientID", admission.id());
+        writeTimeField(generator, "admissionDate", admission.admissionDate(), admission.admissionDateText());
+        generator.writeEndObject();
+    }
+
+    // /AdmissionsAt and /AdmissionsBetween row: {"id", "admissionDate", "dischargeDate", "patientID"}, as the upstream writes it
+    public static void writeAdmission(JsonGenerator generator, Admission admission) throws IOException {
+        generator.writeStartObject();
+        writeIntField(generator, "id", admission.id());
+        writeTimeField(generator, "admissionDate", admission.admissionDate(), admission.admissionDateText());
+        writeTimeField(generator, "dischargeDate", admission.dischargeDate(), admission.dischargeDateText());
+        writeIntField(generator, "patientID", admission.patientID());
+        generator.writeEndObject();
+    }
+
+    // /AdmissionChanges event: {"sequence", "type", "version", "admission"}; a reset carries only its sequence and type
+    public static void writeAdmissionChange(JsonGenerator generator, AdmissionChangeFeed.Event event) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("sequence", event.sequence());
+        generator.writeStringField("type", event.type());
+        if (event.admission() != null) {
+            generator.writeNumberField("version", event.version());
+            generator.writeFieldName("admission");
+            writeAdmission(generator, event.admission());
+        }
+        generator.writeEndObject();
+    }
+
+    // F4 row: the upstream's record as it came, or {"id", "surname", "forename"} for one not parsed from it
+    public static void writeEmployee(JsonGenerator generator, Employee employee) throws IOException {
+        if (employee.json() != null) {
+            generator.writeRawValue(employee.json());
+            return;
+        }
+        generator.writeStartObject();
+        writeIntField(generator, "id", employee.id());
+        generator.writeStringField("surname", employee.surname());
+        generator.writeStringField("forename", employee.forename());
+        generator.writeEndObject();
+    }
+
+    // /EmployeesByAdmissionCount row: {"id", "surname", "forename", "admissionCount"}
+    public static void writeEmployeeAdmissionCount(JsonGenerator generator, EmployeeAdmissionCount row) throws IOException {
+        generator.writeStartObject();
+        writeIntField(generator, "id", row.id());
+        generator.writeStringField("surname", row.surname());
+        generator.writeStringField("forename", row.forename());
+        generator.writeNumberField("admissionCount", row.admissionCount());
+        generator.writeEndObject();
+    }
+
+    public static <T> String writeArray(List<T> rows, RowWriter<T> rowWriter) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = MAPPER.createGenerator(writer)) {
+            writeRows(generator, rows.iterator(), rowWriter);
+        }
+        return writer.toString();
+    }
+
+    public static <T> String writeObject(T row, RowWriter<T> rowWriter) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = MAPPER.createGenerator(writer)) {
+            rowWriter.write(generator, row);
+        }
+        return writer.toString();
+    }
+
+    // /Admissions/batch body: {"<patientID>": [F1 rows], ...} in the order asked for, null for a patient without
+    // admissions. The F1 arrays come ready-formatted from the index and are copied in as they are.
+    public static String writeAdmissionsByPatient(Map<String, String> admissionsByPatient) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = MAPPER.createGenerator(writer)) {
+            generator.writeStartObject();
+            for (Map.Entry<String, String> patient : admissionsByPatient.entrySet()) {
+                generator.writeFieldName(patient.getKey());
+                if (patient.getValue() == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeRawValue(patient.getValue());
+                }
+            }
+            generator.writeEndObject();
+        }
+        return writer.toString();
+    }
+
+    // Writes the rows straight to the output stream as they are produced; the stream itself is left open
+    public static <T> void streamArray(OutputStream outputStream, Stream<T> rows, RowWriter<T> rowWriter) throws IOException {
+        try (JsonGenerator generator = MAPPER.createGenerator(outputStream, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            writeRows(generator, rows.iterator(), rowWriter);
+        }
+    }
+
+    private static <T> void writeRows(JsonGenerator generator, Iterator<T> rows, RowWriter<T> rowWriter) throws IOException {
+        generator.writeStartArray();
+        while (rows.hasNext()) {
+            rowWriter.write(generator, rows.next());
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeIntField(JsonGenerator generator, String name, int value) throws IOException {
+        if (value == MISSING_ID) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeNumberField(name, value);
+        }
+    }
+
+    // text is the upstream's own, where it has been kept
+    private static void writeTimeField(JsonGenerator generator, String name, long value, String text) throws IOException {
+        if (text != null) {
+            generator.writeStringField(name, text);
+        } else if (value == MISSING_TIME) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeStringField(name, formatTime(value));
+        }
+    }
+
+    public interface RowWriter<T> {
+        void write(JsonGenerator generator, T row) throws IOException;
+    }
+
+    private interface AdmissionSink {
+        void add(int id, long admissionDate, String admissionDateText, long dischargeDate, String dischargeDateText, int patientID);
+    }
+}
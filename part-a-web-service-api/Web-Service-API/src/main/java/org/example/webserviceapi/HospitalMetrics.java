@@ -0,0 +1,108 @@
+package org.example.webserviceapi;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+
+// Timers and size histograms for where a request's time goes: upstream calls, JSON parsing, JSON serialisation and
+// response compression.
+// Per-endpoint timings come from Spring's own http.server.requests, with histograms enabled in application.properties.
+public class HospitalMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public HospitalMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // path is the upstream path template (e.g. "Employees/{id}") to keep the tag's cardinality bounded
+    public void recordUpstreamCall(String path, String status, long bodyBytes, long elapsedNanos) {
+        Timer.builder("hospital.upstream.requests")
+                .description("Calls to the upstream API")
+                .tags("path", path, "status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        if (bodyBytes >= 0) {
+            DistributionSummary.builder("hospital.upstream.response.size")
+                    .description("Decoded size of upstream response bodies")
+                    .baseUnit("bytes")
+                    .tags("path", path, "status", status)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(bodyBytes);
+        }
+    }
+
+    // A call that shared the result of an identical upstream call already in flight instead of making its own
+    public void recordCoalescedUpstreamCall(String path) {
+        Counter.builder("hospital.upstream.coalesced")
+                .description("Upstream calls answered by an identical call already in flight")
+                .tag("path", path)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // How a hedged upstream call went (see HedgedRequests): hedge rate is the share of calls with a winner, win rate
+    // the share of those the hedge won
+    public void recordHedgeOutcome(String path, String outcome) {
+        Counter.builder("hospital.upstream.hedging")
+                .description("Upstream calls eligible for hedging, by outcome")
+                .tags("path", path, "outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // Parsing a dataset, or building a per-snapshot view from it
+    public <T> T timeParse(String dataset, Work<T> work) throws IOException {
+        return time("hospital.json.parse", "Parsing upstream datasets into records and views", "dataset", dataset, work);
+    }
+
+    // Writing the JSON body of an endpoint's response
+    public <T> T timeSerialise(String endpoint, Work<T> work) throws IOException {
+        return time("hospital.json.serialise", "Writing response bodies", "endpoint", endpoint, work);
+    }
+
+    // Uncompressed over gzipped size of a response body, recorded the first time the body is gzipped
+    public void recordCompression(String endpoint, long identityBytes, long compressedBytes) {
+        DistributionSummary.builder("hospital.response.compression.ratio")
+                .description("Uncompressed size over gzipped size of response bodies")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(compressedBytes > 0 ? (double) identityBytes / compressedBytes : 1.0);
+    }
+
+    // Whether a gzipped body was already kept for the response's ETag
+    public void recordCompressionCacheLookup(String endpoint, boolean hit) {
+        Counter.builder("hospital.response.compression.cache")
+                .description("Lookups of gzipped response bodies kept per ETag")
+                .tags("endpoint", endpoint, "result", hit ? "hit" : "miss")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private <T> T time(String name, String description, String tagKey, String tagValue, Work<T> work) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return work.run();
+        } finally {
+            Timer.builder(name)
+                    .description(description)
+                    .tag(tagKey, tagValue)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public interface Work<T> {
+        T run() throws IOException;
+    }
+}
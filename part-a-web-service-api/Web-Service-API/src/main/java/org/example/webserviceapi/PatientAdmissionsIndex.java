@@ -0,0 +1,69 @@
+package org.example.webserviceapi;
+
+import java.io.IOException;
+import java.util.*;
+
+
+// Patient ID -> admissions index for F1, built once per Admissions snapshot.
+// Each patient's admissions are stored already formatted as the JSON the endpoint returns,
+// so a lookup is a single hash probe with no filtering or serialisation.
+public class PatientAdmissionsIndex {
+
+    private final IntObjectMap<String> admissionsByPatient;
+
+    private PatientAdmissionsIndex(IntObjectMap<String> admissionsByPatient) {
+        this.admissionsByPatient = admissionsByPatient;
+    }
+
+    public static PatientAdmissionsIndex build(List<Admission> admissions) throws IOException {
+        return build(AdmissionColumns.of(admissions));
+    }
+
+    public static PatientAdmissionsIndex build(AdmissionColumns admissions) throws IOException {
+        // Rows sorted by patient and then by row, so each patient's admissions are a run in upstream order
+        long[] patientRows = new long[admissions.size()];
+        int count = 0;
+        for (int row = 0; row < admissions.size(); row++) {
+            if (admissions.patientID(row) != HospitalJson.MISSING_ID) {
+                patientRows[count++] = ((long) admissions.patientID(row) << 32) | row;
+            }
+        }
+        Arrays.sort(patientRows, 0, count);
+
+        IntObjectMap<String> admissionsByPatient = new IntObjectMap<>();
+        List<Admission> patientAdmissions = new ArrayList<>();
+        for (int start = 0; start < count; ) {
+            int patientID = (int) (patientRows[start] >> 32);
+            int end = start;
+            patientAdmissions.clear();
+            while (end < count && (int) (patientRows[end] >> 32) == patientID) {
+                patientAdmissions.add(admissions.get((int) patientRows[end]));
+                end++;
+            }
+            admissionsByPatient.put(patientID, HospitalJson.writeArray(patientAdmissions, HospitalJson::writePatientAdmission));
+            start = end;
+        }
+
+        return new PatientAdmissionsIndex(admissionsByPatient);
+    }
+
+    // Returns the formatted admissions for the patient, or null if the patient has none
+    public String lookup(String patientID) {
+        Integer key = parsePatientID(patientID);
+        return key != null ? admissionsByPatient.get(key) : null;
+    }
+
+    public int patientCount() {
+        return admissionsByPatient.size();
+    }
+
+    // Only the canonical form of an integer matches, the same as comparing against the upstream value's toString()
+    static Integer parsePatientID(String patientID) {
+        try {
+            int parsed = Integer.parseInt(patientID);
+            return Integer.toString(parsed).equals(patientID) ? parsed : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
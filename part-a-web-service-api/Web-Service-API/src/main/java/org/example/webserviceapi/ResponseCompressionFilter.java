@@ -0,0 +1,95 @@
+package org.example.webserviceapi;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+
+// Gzips successful responses that carry an ETag, for clients that accept it, using the bodies kept by
+// CompressedResponseCache. Responses without an ETag are not determined by snapshot versions and go out as they are.
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    private final CompressedResponseCache compressedResponses;
+
+    public ResponseCompressionFilter(CompressedResponseCache compressedResponses) {
+        this.compressedResponses = compressedResponses;
+    }
+
+    // The streaming variants and the change feed write as they go, which buffering here would undo
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || "true".equals(request.getParameter("stream"))
+                || request.getRequestURI().endsWith("/AdmissionChanges");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // Whatever is sent, shared caches must not hand it to a client with different Accept-Encoding
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (!acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper bufferedResponse = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, bufferedResponse);
+
+        String etag = bufferedResponse.getHeader(HttpHeaders.ETAG);
+        byte[] compressed = null;
+        if (bufferedResponse.getStatus() == HttpServletResponse.SC_OK && etag != null) {
+            compressed = compressedResponses.gzip(endpointOf(request), etag, bufferedResponse.getContentAsByteArray());
+        }
+
+        if (compressed == null) {
+            bufferedResponse.copyBodyToResponse();
+            return;
+        }
+
+        bufferedResponse.resetBuffer();
+        // The gzipped bytes differ from the identity ones, so the tag is sent weak; If-None-Match compares weakly
+        response.setHeader(HttpHeaders.ETAG, etag.startsWith("W/") ? etag : "W/" + etag);
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.setContentLength(compressed.length);
+        response.getOutputStream().write(compressed);
+    }
+
+    // The matched mapping (e.g. "/Admission/{patientID}") keeps the metric tags bounded
+    private static String endpointOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "unmapped";
+    }
+
+    // gzip, x-gzip or * without q=0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equalsIgnoreCase("x-gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.startsWith("q=")) {
+                    refused = parameter.substring(2).trim().matches("0(\\.0{0,3})?");
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
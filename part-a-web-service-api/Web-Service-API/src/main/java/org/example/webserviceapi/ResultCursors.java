@@ -0,0 +1,90 @@
+package org.example.webserviceapi;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+// Opaque cursors for paging through an endpoint's result. The first page pins the complete result for the snapshot
+// versions it was built from, and each cursor names those versions and an offset into it, so every later page reads
+// the same rows however often the upstream data refreshes meanwhile, and costs only a slice of the pinned list.
+// The most recently used results are kept; a cursor into one that has been dropped has expired.
+public class ResultCursors {
+
+    // Cursors are only valid in the process that issued them
+    private final String epoch = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+
+    private final Map<String, List<?>> pinned;
+
+    private volatile int maxPinned;
+
+    public ResultCursors(int maxPinned) {
+        this.maxPinned = maxPinned;
+        // Access-ordered, so the result least recently paged through is dropped first
+        this.pinned = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<?>> eldest) {
+                return size() > ResultCursors.this.maxPinned;
+            }
+        };
+    }
+
+    public void setMaxPinned(int maxPinned) {
+        this.maxPinned = maxPinned;
+    }
+
+    // Where a cursor points: the versions the result was built from, and the first row of the next page
+    public record Position(String versions, int offset) {
+    }
+
+    // Pins rows as the result of endpoint for versions, or returns the result pinned already by an earlier request.
+    // The rows must not change afterwards and should support random access.
+    @SuppressWarnings("unchecked")
+    public <T> List<T> pin(String endpoint, String versions, List<T> rows) {
+        synchronized (pinned) {
+            List<?> existing = pinned.putIfAbsent(key(endpoint, versions), rows);
+            return existing != null ? (List<T>) existing : rows;
+        }
+    }
+
+    // The result pinned for endpoint and versions, or null if it was never pinned or has been dropped since
+    @SuppressWarnings("unchecked")
+    public <T> List<T> pinned(String endpoint, String versions) {
+        synchronized (pinned) {
+            return (List<T>) pinned.get(key(endpoint, versions));
+        }
+    }
+
+    public String cursor(String endpoint, String versions, int offset) {
+        String position = epoch + ":" + endpoint + ":" + versions + ":" + offset;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Throws IllegalArgumentException for a cursor that was not issued for this endpoint by this process
+    public Position decode(String endpoint, String cursor) {
+        String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = position.split(":", -1);
+        if (parts.length != 4 || !parts[0].equals(epoch) || !parts[1].equals(endpoint)) {
+            throw new IllegalArgumentException("Not a cursor for " + endpoint + ": " + cursor);
+        }
+        int offset = Integer.parseInt(parts[3]);
+        if (offset < 0) {
+            throw new IllegalArgumentException("Negative offset in cursor: " + cursor);
+        }
+        return new Position(parts[2], offset);
+    }
+
+    // Number of results pinned
+    int size() {
+        synchronized (pinned) {
+            return pinned.size();
+        }
+    }
+
+    private static String key(String endpoint, String versions) {
+        return endpoint + ":" + versions;
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.webserviceapi;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+
+// Collapses concurrent calls for the same key into one. The first caller starts the call and every caller arriving
+// while it is in flight waits for and shares its result, or its exception. Nothing is kept once the call completes, so
+// the next caller after that makes a new call.
+// The call runs on the given executor rather than on the first caller's thread, so no caller owns it: every caller,
+// the first included, only waits for it, and one that is interrupted (at its request's deadline, say) stops waiting
+// while the call carries on for the others. The executor should be bounded, as it is what limits the calls made at
+// once; instances sharing one executor share that limit.
+// A call whose callers have all stopped waiting before it starts is not made. One that has already started runs to
+// completion (bounded by the upstream read timeout for upstream calls) and keeps its thread until then.
+// A call made from within another call, on any instance, runs on that call's thread rather than taking a second one,
+// so nested calls can neither hop threads nor wait on a bounded executor their own thread is holding.
+public class SingleFlight<K, V> {
+
+    private static final int DEFAULT_THREADS = 8;
+
+    // Shared by every instance not given an executor of its own
+    private static final Executor SHARED_EXECUTOR = newCallExecutor(DEFAULT_THREADS, "single-flight-call-");
+
+    // Set on a thread while it is running a call
+    private static final ThreadLocal<Boolean> RUNNING_CALL = ThreadLocal.withInitial(() -> false);
+
+    private final Map<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final Executor executor;
+
+    public SingleFlight() {
+        this(SHARED_EXECUTOR);
+    }
+
+    public SingleFlight(Executor executor) {
+        this.executor = executor;
+    }
+
+    // onJoin runs on a caller that shares a call already in flight instead of making its own
+    public V execute(K key, Supplier<V> call, Runnable onJoin) {
+        while (true) {
+            Flight<V> flight = new Flight<>(call);
+            Flight<V> existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                start(key, flight);
+                return await(flight);
+            }
+            if (existing.addWaiter()) {
+                onJoin.run();
+                if (RUNNING_CALL.get()) {
+                    // Rather than wait for a thread to pick it up, which might never come if this one is the last
+                    run(key, existing);
+                }
+                return await(existing);
+            }
+            // Abandoned as this caller arrived, so make a new call
+            inFlight.remove(key, existing);
+        }
+    }
+
+    // Number of calls currently in flight
+    public int size() {
+        return inFlight.size();
+    }
+
+    static ThreadPoolExecutor newCallExecutor(int threads, String threadName) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, threadName + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private void start(K key, Flight<V> flight) {
+        if (RUNNING_CALL.get()) {
+            run(key, flight);
+            return;
+        }
+        try {
+            executor.execute(() -> run(key, flight));
+        } catch (RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+        }
+    }
+
+    // Taken out of flight before it completes, so a caller that has seen the result and calls again makes a new call
+    private void run(K key, Flight<V> flight) {
+        if (!flight.started.compareAndSet(false, true)) {
+            return;
+        }
+        if (flight.abandon()) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(new CancellationException("Every caller stopped waiting before the call started"));
+            return;
+        }
+
+        boolean nested = RUNNING_CALL.get();
+        RUNNING_CALL.set(true);
+        V value;
+        try {
+            value = flight.call.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            return;
+        } finally {
+            if (!nested) {
+                RUNNING_CALL.remove();
+            }
+        }
+        inFlight.remove(key, flight);
+        flight.complete(value);
+    }
+
+    private static <V> V await(Flight<V> flight) {
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            // The caller was cancelled, e.g. at its request's deadline; the call itself is not interrupted and
+            // carries on for the others, or is skipped if it has not started and no one else is waiting
+            flight.removeWaiter();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for a shared call");
+        }
+    }
+
+    private static final class Flight<V> extends CompletableFuture<V> {
+
+        private final Supplier<V> call;
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        // Callers still waiting, starting with the one that made the flight; -1 once it is abandoned
+        private final AtomicInteger waiters = new AtomicInteger(1);
+
+        private Flight(Supplier<V> call) {
+            this.call = call;
+        }
+
+        // False if the flight was abandoned and can no longer be joined
+        private boolean addWaiter() {
+            while (true) {
+                int count = waiters.get();
+                if (count < 0) {
+                    return false;
+                }
+                if (waiters.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void removeWaiter() {
+            waiters.decrementAndGet();
+        }
+
+        private boolean abandon() {
+            return waiters.compareAndSet(0, -1);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.example.webserviceapi;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32C;
+
+
+// The last good upstream snapshots on disk, so a restarted service can serve straight away instead of waiting on
+// the upstream. Layout, big-endian:
+//   magic "HSNP", format version, entry count,
+//   per entry: dataset name length + UTF-8 name, fetched-at epoch millis, body length + UTF-8 body,
+//   CRC32C of everything before it.
+// A file with another magic or version, a bad checksum or a truncated entry is ignored as a whole.
+//
+// Bodies are kept as the upstream sent them rather than in a parsed form such as AdmissionColumns. A restored
+// snapshot has to serve the same bytes, ETags and passed-through records as a downloaded one, and its views are
+// built from the body on first use just as a download's are. Restoring saves the upstream round trip, then, but not
+// the parse, which costs a small fraction of it; a columnar file would save the parse as well, at the price of a
+// second encoding of every view to keep in step with HospitalJson.
+// Nor is the file memory-mapped: a mapping stays open until it is garbage collected, which on Windows blocks the
+// replace in write, and every entry is decoded into the heap straight away in any case.
+public class SnapshotFile {
+
+    static final int MAGIC = 0x48534E50;
+    static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_BYTES = 12;
+    private static final int CHECKSUM_BYTES = 4;
+
+    private static final long REWRITE_AFTER_MILLIS = 60_000;
+
+    private final Path path;
+
+    // Latest snapshot per dataset, and when it was fetched, for the next write
+    private final Map<String, Entry> latest = new ConcurrentHashMap<>();
+    private final AtomicBoolean writePending = new AtomicBoolean();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-file-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SnapshotFile(Path path) {
+        this.path = path;
+    }
+
+    public record Entry(String dataset, long fetchedAtEpochMillis, String body) {
+    }
+
+    // Entries of the file; empty if it is missing or not valid. They are kept for later writes, so datasets that have
+    // not been refreshed yet are not dropped from the file.
+    public List<Entry> load() {
+        List<Entry> entries;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + CHECKSUM_BYTES || size > Integer.MAX_VALUE) {
+                return List.of();
+            }
+            ByteBuffer file = ByteBuffer.allocate((int) size);
+            while (file.hasRemaining()) {
+                if (channel.read(file) < 0) {
+                    // Truncated while being read
+                    return List.of();
+                }
+            }
+            entries = decode(file.flip());
+        } catch (IOException e) {
+            return List.of();
+        }
+        for (Entry entry : entries) {
+            latest.putIfAbsent(entry.dataset(), entry);
+        }
+        return entries;
+    }
+
+    static List<Entry> decode(ByteBuffer file) {
+        int contentBytes = file.limit() - CHECKSUM_BYTES;
+        if (contentBytes < HEADER_BYTES) {
+            return List.of();
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(file.duplicate().limit(contentBytes));
+        if ((int) crc.getValue() != file.getInt(contentBytes)) {
+            return List.of();
+        }
+
+        ByteBuffer content = file.duplicate().limit(contentBytes);
+        if (content.getInt() != MAGIC || content.getInt() != FORMAT_VERSION) {
+            return List.of();
+        }
+        try {
+            int count = content.getInt();
+            List<Entry> entries = new ArrayList<>(Math.min(count, 16));
+            for (int i = 0; i < count; i++) {
+                String dataset = utf8(content, content.getShort() & 0xFFFF);
+                long fetchedAtEpochMillis = content.getLong();
+                String body = utf8(content, content.getInt());
+                entries.add(new Entry(dataset, fetchedAtEpochMillis, body));
+            }
+            return content.hasRemaining() ? List.of() : entries;
+        } catch (RuntimeException e) {
+            // Lengths that run past the end of the file, despite a matching checksum
+            return List.of();
+        }
+    }
+
+    private static String utf8(ByteBuffer content, int length) {
+        if (length < 0 || length > content.remaining()) {
+            throw new IllegalArgumentException("Length past the end of the file: " + length);
+        }
+        ByteBuffer bytes = content.slice().limit(length);
+        content.position(content.position() + length);
+        return StandardCharsets.UTF_8.decode(bytes).toString();
+    }
+
+    // Writes to a temporary file which then replaces the old one, so a crash mid-write leaves the previous file
+    public void write(List<Entry> entries) throws IOException {
+        byte[][] names = new byte[entries.size()][];
+        byte[][] bodies = new byte[entries.size()][];
+        long size = HEADER_BYTES + CHECKSUM_BYTES;
+        for (int i = 0; i < entries.size(); i++) {
+            names[i] = entries.get(i).dataset().getBytes(StandardCharsets.UTF_8);
+            bodies[i] = entries.get(i).body().getBytes(StandardCharsets.UTF_8);
+            size += 2 + names[i].length + 8 + 4 + bodies[i].length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshots too large for a snapshot file: " + size + " bytes");
+        }
+
+        ByteBuffer file = ByteBuffer.allocate((int) size);
+        file.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            file.putShort((short) names[i].length).put(names[i]);
+            file.putLong(entries.get(i).fetchedAtEpochMillis());
+            file.putInt(bodies[i].length).put(bodies[i]);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(file.array(), 0, file.position());
+        file.putInt((int) crc.getValue());
+        file.flip();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (file.hasRemaining()) {
+                    channel.write(file);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    // Records a new snapshot and rewrites the file in the background; snapshots arriving meanwhile share one write
+    public void saveLater(UpstreamSnapshotCache.Snapshot snapshot) {
+        long fetchedAtEpochMillis = System.currentTimeMillis() - snapshot.ageNanos() / 1_000_000;
+        latest.put(snapshot.dataset(), new Entry(snapshot.dataset(), fetchedAtEpochMillis, snapshot.body()));
+        writeLater();
+    }
+
+    // Records that a snapshot's data was found unchanged, so a restart does not take it for older than it is. The file
+    // is only rewritten once the saved time is REWRITE_AFTER_MILLIS behind, not on every revalidation.
+    public void revalidatedLater(UpstreamSnapshotCache.Snapshot snapshot) {
+        long fetchedAtEpochMillis = System.currentTimeMillis() - snapshot.ageNanos() / 1_000_000;
+        Entry saved = latest.get(snapshot.dataset());
+        if (saved == null || !saved.body().equals(snapshot.body())) {
+            saveLater(snapshot);
+        } else if (fetchedAtEpochMillis - saved.fetchedAtEpochMillis() >= REWRITE_AFTER_MILLIS) {
+            latest.put(snapshot.dataset(), new Entry(snapshot.dataset(), fetchedAtEpochMillis, saved.body()));
+            writeLater();
+        }
+    }
+
+    private void writeLater() {
+        if (!writePending.compareAndSet(false, true)) {
+            return;
+        }
+        writer.execute(() -> {
+            writePending.set(false);
+            try {
+                write(new ArrayList<>(latest.values()));
+            } catch (IOException e) {
+                // The previous file is left as it was; the next snapshot will try again
+            }
+        });
+    }
+}
@@ -0,0 +1,293 @@
+package org.example.webserviceapi;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+
+// In-memory snapshots of the upstream datasets (Admissions, Allocations, Employees).
+// A snapshot younger than the TTL is served as-is. An older one is still served (stale-while-revalidate)
+// while a single background refresh replaces it, so requests never wait on a refresh.
+// Only once a snapshot is older than max-stale do requests block and reload it themselves.
+public class UpstreamSnapshotCache {
+
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(30);
+    public static final Duration DEFAULT_MAX_STALE = Duration.ofMinutes(10);
+
+    private final Function<String, ResponseEntity<String>> loader;
+    private final Executor refreshExecutor;
+
+    private volatile Duration ttl = DEFAULT_TTL;
+    private volatile Duration maxStale = DEFAULT_MAX_STALE;
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Set<String> refreshesInFlight = ConcurrentHashMap.newKeySet();
+    private final SingleFlight<String, Snapshot> loads;
+    private final Map<String, DatasetStats> stats = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final List<Consumer<Snapshot>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Snapshot>> revalidatedListeners = new CopyOnWriteArrayList<>();
+
+    public UpstreamSnapshotCache(Function<String, ResponseEntity<String>> loader) {
+        this(loader, newRefreshExecutor());
+    }
+
+    public UpstreamSnapshotCache(Function<String, ResponseEntity<String>> loader, Executor refreshExecutor) {
+        this.loader = loader;
+        this.refreshExecutor = refreshExecutor;
+        this.loads = new SingleFlight<>();
+    }
+
+    // Downloads run on callExecutor, which a loader coalescing its own calls through a SingleFlight should share
+    public UpstreamSnapshotCache(Function<String, ResponseEntity<String>> loader, Executor refreshExecutor, Executor callExecutor) {
+        this.loader = loader;
+        this.refreshExecutor = refreshExecutor;
+        this.loads = new SingleFlight<>(callExecutor);
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public void setMaxStale(Duration maxStale) {
+        this.maxStale = maxStale;
+    }
+
+    // Called with every new snapshot, on the thread that downloaded it
+    public void addListener(Consumer<Snapshot> listener) {
+        listeners.add(listener);
+    }
+
+    // Called when a download finds a snapshot's data unchanged and restarts its age, on the thread that downloaded it
+    public void addRevalidatedListener(Consumer<Snapshot> listener) {
+        revalidatedListeners.add(listener);
+    }
+
+    // Returns the current snapshot of a dataset, or null if the upstream could not provide one
+    public Snapshot get(String dataset) {
+        DatasetStats datasetStats = statsFor(dataset);
+        Snapshot snapshot = snapshots.get(dataset);
+
+        if (snapshot != null) {
+            long age = snapshot.ageNanos();
+            if (age < ttl.toNanos()) {
+                datasetStats.hits.increment();
+                return snapshot;
+            }
+            if (age < maxStale.toNanos()) {
+                datasetStats.staleHits.increment();
+                refreshInBackground(dataset);
+                return snapshot;
+            }
+        }
+
+        datasetStats.misses.increment();
+        return load(dataset);
+    }
+
+    // Seeds a dataset with a snapshot saved by an earlier run, unless it already has one, aged by how long ago it was
+    // fetched; one older than max-stale would never be served, so it is not restored. Listeners are not called, they
+    // saw the snapshot in the earlier run.
+    public boolean restore(String dataset, String body, Duration age) {
+        if (body == null || body.isEmpty() || age.compareTo(maxStale) >= 0) {
+            return false;
+        }
+        // A saved time in the future (the clock was set back) counts as just fetched
+        long ageNanos = Math.max(0, age.toNanos());
+        Snapshot snapshot = new Snapshot(dataset, body, versions.incrementAndGet(), System.nanoTime() - ageNanos);
+        if (snapshots.putIfAbsent(dataset, snapshot) != null) {
+            return false;
+        }
+        statsFor(dataset).restored.increment();
+        return true;
+    }
+
+    // Replaces the dataset's snapshot from the upstream in the background, keeping the current one meanwhile
+    public void refresh(String dataset) {
+        refreshInBackground(dataset);
+    }
+
+    // Concurrent loads of a dataset, blocking or in the background, share one download and one new snapshot
+    private Snapshot load(String dataset) {
+        return loads.execute(dataset, () -> download(dataset), statsFor(dataset).coalesced::increment);
+    }
+
+    // Hit/miss counters and snapshot age per dataset, for tuning TTLs against upstream freshness
+    public List<Map<String, Object>> getStats() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (String dataset : new TreeSet<>(stats.keySet())) {
+            DatasetStats datasetStats = stats.get(dataset);
+            Snapshot snapshot = snapshots.get(dataset);
+
+            LinkedHashMap<String, Object> entry = new LinkedHashMap<>();
+            entry.put("dataset", dataset);
+            entry.put("hits", datasetStats.hits.sum());
+            entry.put("staleHits", datasetStats.staleHits.sum());
+            entry.put("misses", datasetStats.misses.sum());
+            entry.put("refreshes", datasetStats.refreshes.sum());
+            entry.put("refreshFailures", datasetStats.refreshFailures.sum());
+            entry.put("unchanged", datasetStats.unchanged.sum());
+            entry.put("coalesced", datasetStats.coalesced.sum());
+            entry.put("restored", datasetStats.restored.sum());
+            entry.put("version", snapshot != null ? snapshot.version() : null);
+            entry.put("ageMillis", snapshot != null ? Duration.ofNanos(snapshot.ageNanos()).toMillis() : null);
+            entry.put("ttlMillis", ttl.toMillis());
+            result.add(entry);
+        }
+        return result;
+    }
+
+    private Snapshot download(String dataset) {
+        ResponseEntity<String> responseEntity = loader.apply(dataset);
+
+        if (responseEntity == null || responseEntity.getStatusCode() != HttpStatus.OK
+                || responseEntity.getBody() == null || responseEntity.getBody().isEmpty()) {
+            return null;
+        }
+
+        // An unchanged download keeps the current snapshot, with its version and views, and just restarts its age
+        Snapshot current = snapshots.get(dataset);
+        if (current != null && current.body().equals(responseEntity.getBody())) {
+            current.revalidated(System.nanoTime());
+            statsFor(dataset).unchanged.increment();
+            notify(revalidatedListeners, current);
+            return current;
+        }
+
+        Snapshot snapshot = new Snapshot(dataset, responseEntity.getBody(), versions.incrementAndGet(), System.nanoTime());
+        snapshots.put(dataset, snapshot);
+        notify(listeners, snapshot);
+        return snapshot;
+    }
+
+    private static void notify(List<Consumer<Snapshot>> listeners, Snapshot snapshot) {
+        for (Consumer<Snapshot> listener : listeners) {
+            try {
+                listener.accept(snapshot);
+            } catch (RuntimeException e) {
+                // A failing listener must not stop the snapshot from being served
+            }
+        }
+    }
+
+    private void refreshInBackground(String dataset) {
+        if (!refreshesInFlight.add(dataset)) {
+            return;
+        }
+
+        DatasetStats datasetStats = statsFor(dataset);
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    if (load(dataset) != null) {
+                        datasetStats.refreshes.increment();
+                    } else {
+                        datasetStats.refreshFailures.increment();
+                    }
+                } catch (RuntimeException e) {
+                    // Keep serving the stale snapshot, the next request past the TTL will try again
+                    datasetStats.refreshFailures.increment();
+                } finally {
+                    refreshesInFlight.remove(dataset);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshesInFlight.remove(dataset);
+            datasetStats.refreshFailures.increment();
+        }
+    }
+
+    private DatasetStats statsFor(String dataset) {
+        return stats.computeIfAbsent(dataset, key -> new DatasetStats());
+    }
+
+    static ExecutorService newRefreshExecutor() {
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "upstream-snapshot-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // A single download of an upstream dataset, plus the views derived from it (indexes, pre-formatted results).
+    // Each view is built at most once per snapshot and is dropped together with the snapshot.
+    public static final class Snapshot {
+
+        private final String dataset;
+        private final String body;
+        private final long version;
+        private volatile long fetchedAtNanos;
+        private final Map<String, Object> views = new ConcurrentHashMap<>();
+
+        public Snapshot(String dataset, String body, long version, long fetchedAtNanos) {
+            this.dataset = dataset;
+            this.body = body;
+            this.version = version;
+            this.fetchedAtNanos = fetchedAtNanos;
+        }
+
+        public String dataset() {
+            return dataset;
+        }
+
+        public String body() {
+            return body;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public long ageNanos() {
+            return System.nanoTime() - fetchedAtNanos;
+        }
+
+        // The upstream returned the same data again
+        void revalidated(long fetchedAtNanos) {
+            this.fetchedAtNanos = fetchedAtNanos;
+        }
+
+        // Builds run under the snapshot's lock, so one view can be built from another view of the same snapshot
+        @SuppressWarnings("unchecked")
+        public <T> T view(String name, ViewBuilder<T> builder) throws IOException {
+            Object view = views.get(name);
+            if (view == null) {
+                synchronized (this) {
+                    view = views.get(name);
+                    if (view == null) {
+                        view = builder.build(body);
+                        views.put(name, view);
+                    }
+                }
+            }
+            return (T) view;
+        }
+    }
+
+    public interface ViewBuilder<T> {
+        T build(String body) throws IOException;
+    }
+
+    private static class DatasetStats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder staleHits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder refreshes = new LongAdder();
+        private final LongAdder refreshFailures = new LongAdder();
+        private final LongAdder unchanged = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder restored = new LongAdder();
+    }
+}
@@ -1,11 +1,34 @@
 package org.example.webserviceapi;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @SpringBootApplication
 public class WebServiceApiApplication {
 
@@ -18,8 +41,97 @@ public class WebServiceApiApplication {
     public static class RestTemplateConfig {
 
         @Bean
-        public RestTemplate restTemplate() {
-            return new RestTemplate();
+        public RestTemplate restTemplate(
+                ClientHttpRequestFactory upstreamRequestFactory,
+                @Value("${hospital.upstream.conditional-requests:true}") boolean conditionalRequests,
+                @Value("${hospital.upstream.conditional-max-bytes:67108864}") long conditionalMaxBytes) {
+            RestTemplate restTemplate = new RestTemplate(upstreamRequestFactory);
+            if (conditionalRequests) {
+                // Upstream responses carrying an ETag or Last-Modified are revalidated rather than downloaded again
+                restTemplate.getInterceptors().add(new ConditionalRequestInterceptor(conditionalMaxBytes));
+            }
+            return restTemplate;
+        }
+
+        // HTTP client for the upstream API, see the hospital.upstream.* properties
+        @Bean
+        public ClientHttpRequestFactory upstreamRequestFactory(
+                MeterRegistry meterRegistry,
+                @Value("${hospital.upstream.max-connections-per-route:20}") int maxConnectionsPerRoute,
+                @Value("${hospital.upstream.max-connections-total:50}") int maxConnectionsTotal,
+                @Value("${hospital.upstream.connect-timeout-ms:2000}") long connectTimeoutMs,
+                @Value("${hospital.upstream.read-timeout-ms:10000}") long readTimeoutMs,
+                @Value("${hospital.upstream.pool-timeout-ms:2000}") long poolTimeoutMs,
+                @Value("${hospital.upstream.keep-alive-seconds:60}") long keepAliveSeconds,
+                @Value("${hospital.upstream.http2:false}") boolean http2) {
+
+            if (http2) {
+                // The JDK client multiplexes requests over one HTTP/2 connection per host, so there is no pool to size
+                HttpClient httpClient = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_2)
+                        .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                        .build();
+                JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+                requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+
+                // Nor does it report a pool, so the requests it has in flight are gauged instead
+                AtomicInteger inFlight = new AtomicInteger();
+                Gauge.builder("hospital.upstream.requests.active", inFlight, AtomicInteger::get)
+                        .description("Upstream requests sent and still waiting for their response")
+                        .tag("httpclient", "upstream")
+                        .register(meterRegistry);
+                ClientHttpRequestInterceptor countInFlight = (request, body, execution) -> {
+                    inFlight.incrementAndGet();
+                    try {
+                        return execution.execute(request, body);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                };
+
+                // Nor does it ask for or decode gzip, which HttpClient 5 does by default
+                return new InterceptingClientHttpRequestFactory(requestFactory, List.of(countInFlight, new GzipDecodingInterceptor()));
+            }
+
+            PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                    .setMaxConnPerRoute(maxConnectionsPerRoute)
+                    .setMaxConnTotal(maxConnectionsTotal)
+                    .setDefaultConnectionConfig(ConnectionConfig.custom()
+                            .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                            .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                            .build())
+                    .build();
+
+            new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "upstream").bindTo(meterRegistry);
+
+            // Content compression is on by default: requests send Accept-Encoding gzip/deflate and bodies are decoded
+            CloseableHttpClient httpClient = HttpClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(RequestConfig.custom()
+                            .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMs))
+                            .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                            .build())
+                    .setKeepAliveStrategy((response, context) -> TimeValue.ofSeconds(keepAliveSeconds))
+                    .evictIdleConnections(TimeValue.ofSeconds(keepAliveSeconds))
+                    .evictExpiredConnections()
+                    .build();
+
+            return new HttpComponentsClientHttpRequestFactory(httpClient);
+        }
+    }
+
+
+    @Configuration
+    public static class ResponseCompressionConfig {
+
+        // Gzipped responses, see the hospital.compression.* properties; registered for all paths as a Filter bean
+        @Bean
+        @ConditionalOnProperty(name = "hospital.compression.enabled", matchIfMissing = true)
+        public ResponseCompressionFilter responseCompressionFilter(
+                MeterRegistry meterRegistry,
+                @Value("${hospital.compression.min-size-bytes:1024}") int minSizeBytes,
+                @Value("${hospital.compression.cache-max-bytes:33554432}") long cacheMaxBytes) {
+            return new ResponseCompressionFilter(new CompressedResponseCache(minSizeBytes, cacheMaxBytes, new HospitalMetrics(meterRegistry)));
         }
     }
 
@@ -0,0 +1,215 @@
+package org.example.webserviceapi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionChangeFeedUnitTests {
+
+    private static final Admission ADMITTED = new Admission(7, HospitalJson.parseTime("2024-01-01T10:00:00"), Admission.NOT_DISCHARGED, 3);
+    private static final Admission DISCHARGED = new Admission(8, HospitalJson.parseTime("2024-01-02T10:00:00"), HospitalJson.parseTime("2024-01-03T10:00:00"), 4);
+
+    @Tag("unitTest")
+    @Test
+    void testSubscribersGetNumberedEventsInOrder() throws Exception {
+        AdmissionChangeFeed feed = new AdmissionChangeFeed(() -> { });
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(null, sink);
+
+        feed.publish(new CurrentAdmissionsView.Delta(5, List.of(ADMITTED), List.of(DISCHARGED), List.of()));
+        feed.publish(new CurrentAdmissionsView.Delta(6, List.of(), List.of(ADMITTED), List.of()));
+
+        List<AdmissionChangeFeed.Event> events = sink.take(3);
+        assertEquals(List.of(AdmissionChangeFeed.ADMITTED, AdmissionChangeFeed.DISCHARGED, AdmissionChangeFeed.DISCHARGED),
+                events.stream().map(AdmissionChangeFeed.Event::type).toList());
+        assertEquals(List.of(1L, 2L, 3L), events.stream().map(AdmissionChangeFeed.Event::sequence).toList());
+        assertEquals(DISCHARGED, events.get(1).admission());
+        assertEquals(6, events.get(2).version());
+    }
+
+    // A reconnecting subscriber gets the events after the last one it saw, and then new ones
+    @Tag("unitTest")
+    @Test
+    void testResumeFromLastEventId() throws Exception {
+        AdmissionChangeFeed feed = new AdmissionChangeFeed(() -> { });
+        RecordingSink first = new RecordingSink();
+        feed.subscribe(null, first);
+        feed.publish(new CurrentAdmissionsView.Delta(5, List.of(ADMITTED), List.of(DISCHARGED), List.of()));
+        String lastSeen = first.take(1).get(0).id();
+        feed.publish(new CurrentAdmissionsView.Delta(6, List.of(), List.of(ADMITTED), List.of()));
+
+        RecordingSink resumed = new RecordingSink();
+        feed.subscribe(lastSeen, resumed);
+        feed.publish(new CurrentAdmissionsView.Delta(7, List.of(DISCHARGED), List.of(), List.of()));
+
+        assertEquals(List.of(2L, 3L, 4L), resumed.take(3).stream().map(AdmissionChangeFeed.Event::sequence).toList());
+    }
+
+    // Edge case - an ID from another run of the process cannot be resumed from, so the subscriber is told to reload
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testUnknownEventIdGetsAReset() throws Exception {
+        AdmissionChangeFeed feed = new AdmissionChangeFeed(() -> { });
+        String foreignId = "k3j9x0-1";
+        feed.publish(new CurrentAdmissionsView.Delta(5, List.of(ADMITTED), List.of(), List.of()));
+
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(foreignId, sink);
+        feed.publish(new CurrentAdmissionsView.Delta(6, List.of(), List.of(ADMITTED), List.of()));
+
+        List<AdmissionChangeFeed.Event> events = sink.take(2);
+        assertEquals(AdmissionChangeFeed.RESET, events.get(0).type());
+        assertEquals(1, events.get(0).sequence());
+        assertEquals(2, events.get(1).sequence());
+    }
+
+    // Boundary case - resuming from before the oldest kept event is a reset, from just before it is not
+    @Tag("unitTest")
+    @Tag("boundaryCase")
+    @Test
+    void testResumeFromBeyondTheKeptHistory() throws Exception {
+        AdmissionChangeFeed feed = new AdmissionChangeFeed(() -> { });
+        feed.setMaxHistory(2);
+        RecordingSink first = new RecordingSink();
+        feed.subscribe(null, first);
+        feed.publish(new CurrentAdmissionsView.Delta(5, List.of(ADMITTED, DISCHARGED, ADMITTED, DISCHARGED), List.of(), List.of()));
+        List<AdmissionChangeFeed.Event> events = first.take(4);
+
+        RecordingSink tooLate = new RecordingSink();
+        feed.subscribe(events.get(0).id(), tooLate);
+        RecordingSink justInTime = new RecordingSink();
+        feed.subscribe(events.get(1).id(), justInTime);
+
+        assertEquals(AdmissionChangeFeed.RESET, tooLate.take(1).get(0).type());
+        assertEquals(3, justInTime.take(1).get(0).sequence());
+    }
+
+    // Corner case - a client that has gone is dropped, and one too far behind is closed so it can resume later
+    @Tag("unitTest")
+    @Tag("cornerCase")
+    @Test
+    void testFailedAndSlowSubscribersAreClosed() throws Exception {
+        AdmissionChangeFeed feed = new AdmissionChangeFeed(() -> { });
+        RecordingSink failing = new RecordingSink();
+        failing.fail = true;
+        feed.subscribe(null, failing);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink();
+        slow.blockUntil = release;
+        feed.subscribe(null, slow);
+
+        feed.publish(new CurrentAdmissionsView.Delta(5, List.of(ADMITTED), List.of(), List.of()));
+        assertTrue(failing.closed.await(5, TimeUnit.SECONDS));
+
+        List<Admission> burst = new ArrayList<>();
+        for (int i = 0; i <= AdmissionChangeFeed.MAX_PENDING; i++) {
+            burst.add(ADMITTED);
+        }
+        feed.publish(new CurrentAdmissionsView.Delta(6, burst, List.of(), List.of()));
+        release.countDown();
+
+        assertTrue(slow.closed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, feed.size());
+    }
+
+    // Subscribing looks at the upstream straight away, rather than waiting for the first heartbeat
+    @Tag("unitTest")
+    @Test
+    void testSubscribingPolls() throws Exception {
+        CountDownLatch polled = new CountDownLatch(1);
+        AdmissionChangeFeed feed = new AdmissionChangeFeed(polled::countDown);
+
+        feed.subscribe(null, new RecordingSink());
+
+        assertTrue(polled.await(5, TimeUnit.SECONDS));
+    }
+
+    // Corner case - a poll stuck on a slow upstream holds up neither the heartbeats nor the next subscriber,
+    // and no second poll is started behind it
+    @Tag("unitTest")
+    @Tag("cornerCase")
+    @Test
+    void testSlowPollDoesNotHoldUpHeartbeats() throws Exception {
+        AtomicInteger polls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        AdmissionChangeFeed feed = new AdmissionChangeFeed(() -> {
+            polls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        feed.setHeartbeatInterval(Duration.ofMillis(10));
+        try {
+            RecordingSink first = new RecordingSink();
+            RecordingSink second = new RecordingSink();
+            feed.subscribe(null, first);
+            feed.subscribe(null, second);
+
+            for (RecordingSink sink : List.of(first, second)) {
+                for (int i = 0; i < 3; i++) {
+                    AdmissionChangeFeed.Event event = sink.events.poll(5, TimeUnit.SECONDS);
+                    assertNotNull(event);
+                    assertEquals(AdmissionChangeFeed.HEARTBEAT, event.type());
+                }
+            }
+            assertEquals(1, polls.get());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static class RecordingSink implements AdmissionChangeFeed.EventSink {
+
+        private final BlockingQueue<AdmissionChangeFeed.Event> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private volatile boolean fail;
+        private volatile CountDownLatch blockUntil;
+
+        @Override
+        public void send(AdmissionChangeFeed.Event event) throws IOException {
+            if (fail) {
+                throw new IOException("Client went away");
+            }
+            if (blockUntil != null) {
+                try {
+                    blockUntil.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            events.add(event);
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        // The next count events, skipping heartbeats
+        List<AdmissionChangeFeed.Event> take(int count) throws InterruptedException {
+            List<AdmissionChangeFeed.Event> taken = new ArrayList<>();
+            while (taken.size() < count) {
+                AdmissionChangeFeed.Event event = events.poll(5, TimeUnit.SECONDS);
+                assertNotNull(event, "Expected " + count + " events, got " + taken.size());
+                if (!event.type().equals(AdmissionChangeFeed.HEARTBEAT)) {
+                    taken.add(event);
+                }
+            }
+            return taken;
+        }
+    }
+}
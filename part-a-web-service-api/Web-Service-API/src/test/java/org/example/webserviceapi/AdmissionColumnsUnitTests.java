@@ -0,0 +1,83 @@
+package org.example.webserviceapi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionColumnsUnitTests {
+
+    @Tag("unitTest")
+    @Test
+    void testColumnsHoldTheRecordsInUpstreamOrder() {
+        List<Admission> admissions = List.of(
+                admission(7, "2024-01-01T10:00:00", "2024-01-02T10:00:00", 3),
+                admission(8, "2024-02-01T10:00:00", "0001-01-01T00:00:00", 4),
+                admission(9, "2024-03-01T10:00:00", "0001-01-01T00:00:00", 3));
+
+        AdmissionColumns columns = AdmissionColumns.of(admissions);
+
+        assertEquals(3, columns.size());
+        for (int row = 0; row < admissions.size(); row++) {
+            assertEquals(admissions.get(row), columns.get(row));
+        }
+        assertEquals(9, columns.id(2));
+        assertEquals(4, columns.patientID(1));
+        assertEquals(HospitalJson.parseTime("2024-03-01T10:00:00"), columns.admissionDate(2));
+        assertEquals(Admission.NOT_DISCHARGED, columns.dischargeDate(1));
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testOpenRowsBitmap() {
+        AdmissionColumns columns = AdmissionColumns.of(List.of(
+                admission(1, "2024-01-01T10:00:00", "2024-01-02T10:00:00", 3),
+                admission(2, "2024-02-01T10:00:00", "0001-01-01T00:00:00", 4),
+                admission(3, "2024-03-01T10:00:00", "2024-03-02T10:00:00", 3),
+                admission(4, "2024-04-01T10:00:00", "0001-01-01T00:00:00", 5)));
+
+        List<Integer> openRows = new ArrayList<>();
+        for (int row = columns.nextOpen(0); row >= 0; row = columns.nextOpen(row + 1)) {
+            openRows.add(row);
+        }
+
+        assertEquals(List.of(1, 3), openRows);
+        assertEquals(2, columns.openCount());
+        assertFalse(columns.isOpen(0));
+    }
+
+    // Boundary case - the builder grows past its initial capacity and trims to the rows added
+    @Tag("unitTest")
+    @Tag("boundaryCase")
+    @Test
+    void testBuilderGrowsPastItsCapacity() {
+        AdmissionColumns.Builder builder = new AdmissionColumns.Builder(1);
+        for (int id = 1; id <= 1000; id++) {
+            builder.add(id, id * 60L, id % 2 == 0 ? Admission.NOT_DISCHARGED : id * 120L, id % 10);
+        }
+
+        AdmissionColumns columns = builder.build();
+
+        assertEquals(1000, columns.size());
+        assertEquals(500, columns.openCount());
+        assertEquals(new Admission(1000, 60000L, Admission.NOT_DISCHARGED, 0), columns.get(999));
+    }
+
+    // Edge case - an empty snapshot has no rows and no open rows
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testEmptyColumns() {
+        AdmissionColumns columns = AdmissionColumns.of(List.of());
+
+        assertEquals(0, columns.size());
+        assertEquals(-1, columns.nextOpen(0));
+    }
+
+    private static Admission admission(int id, String admissionDate, String dischargeDate, int patientID) {
+        return new Admission(id, HospitalJson.parseTime(admissionDate), HospitalJson.parseTime(dischargeDate), patientID);
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.webserviceapi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionCountLeaderboardUnitTests {
+
+    @Tag("unitTest")
+    @Test
+    void testTopEmployeesInRankingOrder() {
+        AdmissionCountLeaderboard leaderboard = AdmissionCountLeaderboard.build(allocations(4, 4, 6, 3, 6, 4));
+
+        assertEquals(List.of(ranking(4, 3), ranking(6, 2), ranking(3, 1)), leaderboard.top(10));
+        assertEquals(List.of(ranking(4, 3), ranking(6, 2)), leaderboard.top(2));
+        assertEquals(ranking(4, 3), leaderboard.leader());
+        assertEquals(3, leaderboard.size());
+    }
+
+    // Edge case - employees with the same count are ranked by ID, lowest first
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testTiesAreBrokenByEmployeeID() {
+        AdmissionCountLeaderboard leaderboard = AdmissionCountLeaderboard.build(allocations(900, 12, 900, 12, 70000, 70000));
+
+        assertEquals(ranking(12, 2), leaderboard.leader());
+        assertEquals(List.of(ranking(12, 2), ranking(900, 2)), leaderboard.top(2));
+    }
+
+    // Boundary case - no allocations, or allocations without an employee
+    @Tag("unitTest")
+    @Tag("boundaryCase")
+    @Test
+    void testEmptyLeaderboard() {
+        AdmissionCountLeaderboard leaderboard = AdmissionCountLeaderboard.build(allocations(HospitalJson.MISSING_ID));
+
+        assertNull(leaderboard.leader());
+        assertEquals(List.of(), leaderboard.top(5));
+        assertEquals(List.of(), AdmissionCountLeaderboard.build(List.of()).top(1));
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testTopMatchesFullSort() {
+        Random random = new Random(42);
+        int[] employeeIDs = new int[20000];
+        for (int i = 0; i < employeeIDs.length; i++) {
+            employeeIDs[i] = random.nextInt(500);
+        }
+        AdmissionCountLeaderboard leaderboard = AdmissionCountLeaderboard.build(allocations(employeeIDs));
+
+        List<AdmissionCountLeaderboard.Ranking> sorted = new ArrayList<>(leaderboard.top(Integer.MAX_VALUE));
+        sorted.sort(AdmissionCountLeaderboard.RANKING_ORDER);
+
+        assertEquals(sorted.subList(0, 25), leaderboard.top(25));
+        assertEquals(sorted.get(0), leaderboard.leader());
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testParallelCountMatchesSequentialCount() {
+        Random random = new Random(7);
+        int[] employeeIDs = new int[200000];
+        for (int i = 0; i < employeeIDs.length; i++) {
+            employeeIDs[i] = random.nextInt(5000) - 100;
+        }
+        List<Allocation> allocations = allocations(employeeIDs);
+
+        AdmissionCountLeaderboard sequential = AdmissionCountLeaderboard.build(allocations, Integer.MAX_VALUE);
+        AdmissionCountLeaderboard parallel = AdmissionCountLeaderboard.build(allocations, 1);
+
+        assertEquals(sequential.top(Integer.MAX_VALUE), parallel.top(Integer.MAX_VALUE));
+        assertEquals(sequential.leader(), parallel.leader());
+    }
+
+    // Edge case - negative, very large and missing employee IDs are looked up outside the bitset
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testHasAdmissions() {
+        AdmissionCountLeaderboard leaderboard = AdmissionCountLeaderboard.build(allocations(3, -5, Integer.MAX_VALUE));
+
+        assertTrue(leaderboard.hasAdmissions(3));
+        assertTrue(leaderboard.hasAdmissions(-5));
+        assertTrue(leaderboard.hasAdmissions(Integer.MAX_VALUE));
+        assertFalse(leaderboard.hasAdmissions(4));
+        assertFalse(leaderboard.hasAdmissions(HospitalJson.MISSING_ID));
+        assertTrue(AdmissionCountLeaderboard.build(allocations(HospitalJson.MISSING_ID)).hasAdmissions(HospitalJson.MISSING_ID));
+    }
+
+    private static List<Allocation> allocations(int... employeeIDs) {
+        List<Allocation> allocations = new ArrayList<>();
+        for (int i = 0; i < employeeIDs.length; i++) {
+            allocations.add(new Allocation(i + 1, i + 1, employeeIDs[i]));
+        }
+        return allocations;
+    }
+
+    private static AdmissionCountLeaderboard.Ranking ranking(int employeeID, long admissionCount) {
+        return new AdmissionCountLeaderboard.Ranking(employeeID, admissionCount);
+    }
+}
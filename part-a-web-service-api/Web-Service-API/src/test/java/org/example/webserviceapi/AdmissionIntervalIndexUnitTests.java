@@ -0,0 +1,130 @@
+package org.example.webserviceapi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionIntervalIndexUnitTests {
+
+    private static final AdmissionColumns ADMISSIONS = AdmissionColumns.of(List.of(
+            admission(1, "2024-01-01T10:00:00", "2024-01-05T10:00:00", 3),
+            admission(2, "2024-01-03T08:00:00", "0001-01-01T00:00:00", 4),
+            admission(3, "2024-01-06T12:00:00", "2024-01-07T12:00:00", 5),
+            admission(4, "2024-01-02T09:00:00", "2024-01-03T09:00:00", 3)));
+
+    @Tag("unitTest")
+    @Test
+    void testAdmittedAt() {
+        AdmissionIntervalIndex index = AdmissionIntervalIndex.build(ADMISSIONS);
+
+        assertArrayEquals(new int[]{0, 1, 3}, index.admittedAt(time("2024-01-03T08:30:00")));
+        assertArrayEquals(new int[]{1, 2}, index.admittedAt(time("2024-01-06T13:00:00")));
+        assertArrayEquals(new int[]{}, index.admittedAt(time("2023-12-31T00:00:00")));
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testAdmittedBetween() {
+        AdmissionIntervalIndex index = AdmissionIntervalIndex.build(ADMISSIONS);
+
+        assertArrayEquals(new int[]{0, 1, 2}, index.admittedBetween(time("2024-01-04T00:00:00"), time("2024-01-06T12:00:00")));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, index.admittedBetween(time("2024-01-01T00:00:00"), time("2024-12-31T00:00:00")));
+    }
+
+    // Edge case - a patient not yet discharged stays admitted indefinitely
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testNotDischargedIsOpenEnded() {
+        AdmissionIntervalIndex index = AdmissionIntervalIndex.build(ADMISSIONS);
+
+        assertArrayEquals(new int[]{1}, index.admittedAt(time("9999-12-31T23:59:59")));
+    }
+
+    // Boundary case - admitted from the admission time, no longer admitted at the discharge time
+    @Tag("unitTest")
+    @Tag("boundaryCase")
+    @Test
+    void testPeriodIncludesAdmissionButNotDischarge() {
+        AdmissionIntervalIndex index = AdmissionIntervalIndex.build(ADMISSIONS);
+
+        assertArrayEquals(new int[]{0}, index.admittedAt(time("2024-01-01T10:00:00")));
+        assertArrayEquals(new int[]{1}, index.admittedAt(time("2024-01-05T10:00:00")));
+        assertArrayEquals(new int[]{1, 2}, index.admittedBetween(time("2024-01-05T10:00:00"), time("2024-01-06T12:00:00")));
+    }
+
+    // Corner case - rows with a missing date or a discharge before admission have no period
+    @Tag("unitTest")
+    @Tag("cornerCase")
+    @Test
+    void testRowsWithoutAPeriodAreLeftOut() {
+        AdmissionColumns.Builder builder = new AdmissionColumns.Builder();
+        builder.add(1, HospitalJson.MISSING_TIME, Admission.NOT_DISCHARGED, 3);
+        builder.add(2, time("2024-01-01T10:00:00"), HospitalJson.MISSING_TIME, 3);
+        builder.add(3, time("2024-01-05T10:00:00"), time("2024-01-01T10:00:00"), 3);
+        builder.add(4, time("2024-01-01T10:00:00"), time("2024-01-09T10:00:00"), 3);
+        AdmissionIntervalIndex index = AdmissionIntervalIndex.build(builder.build());
+
+        assertEquals(1, index.size());
+        assertArrayEquals(new int[]{3}, index.admittedAt(time("2024-01-03T10:00:00")));
+    }
+
+    // Edge case - an empty snapshot and a range given the wrong way round
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testEmptyResults() {
+        AdmissionIntervalIndex empty = AdmissionIntervalIndex.build(AdmissionColumns.of(List.of()));
+        AdmissionIntervalIndex index = AdmissionIntervalIndex.build(ADMISSIONS);
+
+        assertArrayEquals(new int[]{}, empty.admittedAt(time("2024-01-03T10:00:00")));
+        assertArrayEquals(new int[]{}, empty.admittedBetween(time("2024-01-01T00:00:00"), time("2024-12-31T00:00:00")));
+        assertArrayEquals(new int[]{}, index.admittedBetween(time("2024-12-31T00:00:00"), time("2024-01-01T00:00:00")));
+    }
+
+    // The index answers the same as a scan of every row, over many overlapping periods
+    @Tag("unitTest")
+    @Test
+    void testMatchesAFullScan() {
+        Random random = new Random(20);
+        AdmissionColumns.Builder builder = new AdmissionColumns.Builder();
+        for (int id = 1; id <= 2000; id++) {
+            long start = random.nextInt(100_000);
+            long end = random.nextInt(10) == 0 ? Admission.NOT_DISCHARGED : start + 1 + random.nextInt(5_000);
+            builder.add(id, start, end, random.nextInt(300));
+        }
+        AdmissionColumns admissions = builder.build();
+        AdmissionIntervalIndex index = AdmissionIntervalIndex.build(admissions);
+
+        for (int query = 0; query < 200; query++) {
+            long from = random.nextInt(110_000) - 5_000;
+            long to = from + random.nextInt(3_000);
+            assertArrayEquals(scan(admissions, from, from), index.admittedAt(from));
+            assertArrayEquals(scan(admissions, from, to), index.admittedBetween(from, to));
+        }
+    }
+
+    private static int[] scan(AdmissionColumns admissions, long from, long to) {
+        List<Integer> rows = new ArrayList<>();
+        for (int row = 0; row < admissions.size(); row++) {
+            long end = admissions.isOpen(row) ? Long.MAX_VALUE : admissions.dischargeDate(row);
+            if (admissions.admissionDate(row) <= to && end > from) {
+                rows.add(row);
+            }
+        }
+        return rows.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static Admission admission(int id, String admissionDate, String dischargeDate, int patientID) {
+        return new Admission(id, time(admissionDate), time(dischargeDate), patientID);
+    }
+
+    private static long time(String text) {
+        return HospitalJson.parseTime(text);
+    }
+}
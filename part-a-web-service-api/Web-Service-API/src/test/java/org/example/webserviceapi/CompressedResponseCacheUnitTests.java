@@ -0,0 +1,102 @@
+package org.example.webserviceapi;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedResponseCacheUnitTests {
+
+    @Tag("unitTest")
+    @Test
+    void testBodyIsCompressedOncePerETag() throws IOException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CompressedResponseCache cache = new CompressedResponseCache(16, 1 << 20, new HospitalMetrics(meterRegistry));
+        byte[] body = "[{\"id\":1,\"surname\":\"Finley\",\"forename\":\"Sarah\"}]".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+        byte[] first = cache.gzip("/EmployeesWithZeroAdmissions", "\"a-F4-1-2\"", body);
+        byte[] second = cache.gzip("/EmployeesWithZeroAdmissions", "\"a-F4-1-2\"", body);
+
+        assertSame(first, second);
+        assertArrayEquals(body, gunzip(first));
+        assertEquals(1, meterRegistry.get("hospital.response.compression.ratio").summary().count());
+        assertTrue(meterRegistry.get("hospital.response.compression.ratio").summary().totalAmount() > 10);
+        assertEquals(1.0, meterRegistry.get("hospital.response.compression.cache").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("hospital.response.compression.cache").tag("result", "miss").counter().count());
+    }
+
+    // Corner case - a tag that stayed the same while its body changed, or the same tag on another endpoint, is not
+    // answered with the bytes kept for the other body
+    @Tag("unitTest")
+    @Tag("cornerCase")
+    @Test
+    void testKeptBytesAreOnlyServedForTheSameBody() throws IOException {
+        CompressedResponseCache cache = new CompressedResponseCache(16, 1 << 20, new HospitalMetrics(new SimpleMeterRegistry()));
+        byte[] before = "[{\"id\":1,\"surname\":\"Finley\",\"forename\":\"Sarah\"}]".repeat(50).getBytes(StandardCharsets.UTF_8);
+        byte[] after = "[{\"id\":1,\"surname\":\"Finlay\",\"forename\":\"Sarah\"}]".repeat(50).getBytes(StandardCharsets.UTF_8);
+
+        cache.gzip("/EmployeesWithZeroAdmissions", "\"a-F4-1-2\"", before);
+
+        assertArrayEquals(after, gunzip(cache.gzip("/EmployeesWithZeroAdmissions", "\"a-F4-1-2\"", after)));
+        assertArrayEquals(before, gunzip(cache.gzip("/CurrentAdmissions", "\"a-F4-1-2\"", before)));
+        assertArrayEquals(after, gunzip(cache.gzip("/EmployeesWithZeroAdmissions", "\"a-F4-1-2\"", after)));
+    }
+
+    // Boundary case - bodies below the minimum size are sent uncompressed
+    @Tag("unitTest")
+    @Tag("boundaryCase")
+    @Test
+    void testBodiesBelowMinimumSizeAreNotCompressed() throws IOException {
+        CompressedResponseCache cache = new CompressedResponseCache(64, 1 << 20, new HospitalMetrics(new SimpleMeterRegistry()));
+
+        assertNull(cache.gzip("/CurrentAdmissions", "\"a\"", new byte[63]));
+        assertNotNull(cache.gzip("/CurrentAdmissions", "\"b\"", new byte[64]));
+    }
+
+    // Edge case - a body that does not get smaller is sent as it is, and not compressed again on the next hit
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testIncompressibleBodiesAreSentUncompressed() throws IOException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CompressedResponseCache cache = new CompressedResponseCache(16, 1 << 20, new HospitalMetrics(meterRegistry));
+        byte[] body = new byte[4096];
+        new Random(1).nextBytes(body);
+
+        assertNull(cache.gzip("/CurrentAdmissions", "\"a\"", body));
+        assertNull(cache.gzip("/CurrentAdmissions", "\"a\"", body));
+        assertEquals(1, meterRegistry.get("hospital.response.compression.ratio").summary().count());
+    }
+
+    // Boundary case - the least recently served bodies are dropped to stay within the byte budget
+    @Tag("unitTest")
+    @Tag("boundaryCase")
+    @Test
+    void testCachedBytesStayWithinBudget() throws IOException {
+        byte[] body = "x".repeat(10000).getBytes(StandardCharsets.UTF_8);
+        long entrySize = CompressedResponseCache.gzip(body).length + CompressedResponseCache.DIGEST_BYTES;
+        CompressedResponseCache cache = new CompressedResponseCache(16, entrySize * 2, new HospitalMetrics(new SimpleMeterRegistry()));
+
+        byte[] first = cache.gzip("/CurrentAdmissions", "\"1\"", body);
+        cache.gzip("/CurrentAdmissions", "\"2\"", body);
+        cache.gzip("/CurrentAdmissions", "\"1\"", body);
+        cache.gzip("/CurrentAdmissions", "\"3\"", body);
+
+        assertEquals(entrySize * 2, cache.cachedBytes());
+        // "1" was served more recently than "2", so it is still kept
+        assertSame(first, cache.gzip("/CurrentAdmissions", "\"1\"", body));
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
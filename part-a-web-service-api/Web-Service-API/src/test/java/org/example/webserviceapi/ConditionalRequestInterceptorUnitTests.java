@@ -0,0 +1,160 @@
+package org.example.webserviceapi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionalRequestInterceptorUnitTests {
+
+    private static final URI ADMISSIONS = URI.create("https://upstream.example/api/Admissions");
+
+    @Tag("unitTest")
+    @Test
+    void testNotModifiedIsAnsweredFromTheKeptBody() throws IOException {
+        ConditionalRequestInterceptor interceptor = new ConditionalRequestInterceptor(16);
+        List<HttpHeaders> sent = new ArrayList<>();
+
+        ClientHttpResponse first = interceptor.intercept(request(ADMISSIONS), new byte[0], (request, body) -> {
+            sent.add(request.getHeaders());
+            return response(HttpStatus.OK, "\"v1\"", "[1]");
+        });
+        ClientHttpResponse second = interceptor.intercept(request(ADMISSIONS), new byte[0], (request, body) -> {
+            sent.add(request.getHeaders());
+            return response(HttpStatus.NOT_MODIFIED, "\"v1\"", "");
+        });
+
+        assertEquals("[1]", bodyOf(first));
+        assertEquals(HttpStatus.OK.value(), second.getStatusCode().value());
+        assertEquals("[1]", bodyOf(second));
+        assertNull(sent.get(0).getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("\"v1\"", sent.get(1).getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(1, interceptor.revalidatedCount());
+    }
+
+    // Edge case - without an ETag or Last-Modified there is nothing to revalidate, so nothing is kept
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testResponsesWithoutValidatorsAreNotKept() throws IOException {
+        ConditionalRequestInterceptor interceptor = new ConditionalRequestInterceptor(16);
+
+        ClientHttpResponse response = interceptor.intercept(request(ADMISSIONS), new byte[0], (request, body) -> response(HttpStatus.OK, null, "[1]"));
+
+        assertEquals("[1]", bodyOf(response));
+        assertEquals(0, interceptor.size());
+    }
+
+    // Boundary case - the least recently requested URL is dropped once the kept bodies exceed max-bytes
+    @Tag("unitTest")
+    @Tag("boundaryCase")
+    @Test
+    void testLeastRecentlyRequestedUrlIsDropped() throws IOException {
+        // Room for two of the two-byte bodies
+        ConditionalRequestInterceptor interceptor = new ConditionalRequestInterceptor(4);
+
+        for (String path : List.of("Admissions", "Allocations", "Admissions", "Employees")) {
+            interceptor.intercept(request(URI.create("https://upstream.example/api/" + path)), new byte[0],
+                    (request, body) -> response(HttpStatus.OK, "\"" + path + "\"", "[]")).close();
+        }
+
+        List<String> ifNoneMatch = new ArrayList<>();
+        for (String path : List.of("Admissions", "Allocations")) {
+            interceptor.intercept(request(URI.create("https://upstream.example/api/" + path)), new byte[0], (request, body) -> {
+                ifNoneMatch.add(request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH));
+                return response(HttpStatus.OK, null, "[]");
+            }).close();
+        }
+
+        assertEquals("\"Admissions\"", ifNoneMatch.get(0));
+        assertNull(ifNoneMatch.get(1));
+    }
+
+    // Edge case - a body larger than the whole budget is not kept, and does not leave the older body behind
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testBodyOverTheBudgetIsNotKept() throws IOException {
+        ConditionalRequestInterceptor interceptor = new ConditionalRequestInterceptor(4);
+
+        interceptor.intercept(request(ADMISSIONS), new byte[0], (request, body) -> response(HttpStatus.OK, "\"v1\"", "[1]")).close();
+        ClientHttpResponse response = interceptor.intercept(request(ADMISSIONS), new byte[0],
+                (request, body) -> response(HttpStatus.OK, "\"v2\"", "[1,2,3]"));
+
+        assertEquals("[1,2,3]", bodyOf(response));
+        assertEquals(0, interceptor.size());
+        assertEquals(0, interceptor.keptBytes());
+    }
+
+    private static HttpRequest request(URI uri) {
+        HttpHeaders headers = new HttpHeaders();
+        return new HttpRequest() {
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+
+            @Override
+            public URI getURI() {
+                return uri;
+            }
+
+            @Override
+            public HttpMethod getMethod() {
+                return HttpMethod.GET;
+            }
+        };
+    }
+
+    private static ClientHttpResponse response(HttpStatus status, String etag, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (etag != null) {
+            headers.setETag(etag);
+        }
+        return new ClientHttpResponse() {
+            @Override
+            public HttpStatusCode getStatusCode() {
+                return status;
+            }
+
+            @Override
+            public String getStatusText() {
+                return status.getReasonPhrase();
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static String bodyOf(ClientHttpResponse response) throws IOException {
+        try (InputStream in = response.getBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.webserviceapi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrentAdmissionsViewUnitTests {
+
+    @Tag("unitTest")
+    @Test
+    void testFirstSnapshotListsOpenAdmissionsInUpstreamOrder() throws Exception {
+        CurrentAdmissionsView view = new CurrentAdmissionsView();
+
+        CurrentAdmissionsView.Delta delta = view.advanceTo(1, List.of(
+                admission(1, "2024-01-01T10:00:00", "2024-01-02T10:00:00", 3),
+                admission(2, "2024-02-01T10:00:00", "0001-01-01T00:00:00", 4),
+                admission(3, "2024-03-01T10:00:00", "0001-01-01T00:00:00", 3)));
+
+        assertEquals(2, delta.admitted().size());
+        assertEquals("[{\"patientID\":2,\"admissionDate\":\"2024-02-01T10:00:00\"},{\"patientID\":3,\"admissionDate\":\"2024-03-01T10:00:00\"}]",
+                view.listing().body());
+        assertEquals(1, view.listing().version());
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testNextSnapshotIsAppliedAsADiff() throws Exception {
+        CurrentAdmissionsView view = new CurrentAdmissionsView();
+        view.advanceTo(1, List.of(
+                admission(1, "2024-01-01T10:00:00", "0001-01-01T00:00:00", 3),
+                admission(2, "2024-02-01T10:00:00", "0001-01-01T00:00:00", 4)));
+
+        CurrentAdmissionsView.Delta delta = view.advanceTo(2, List.of(
+                admission(1, "2024-01-01T10:00:00", "2024-01-05T10:00:00", 3),
+                admission(2, "2024-02-01T10:00:00", "0001-01-01T00:00:00", 4),
+                admission(3, "2024-03-01T10:00:00", "0001-01-01T00:00:00", 5)));
+
+        assertEquals(List.of(3), delta.admitted().stream().map(Admission::id).toList());
+        assertEquals(List.of(1), delta.discharged().stream().map(Admission::id).toList());
+        assertTrue(delta.updated().isEmpty());
+        assertEquals("[{\"patientID\":2,\"admissionDate\":\"2024-02-01T10:00:00\"},{\"patientID\":3,\"admissionDate\":\"2024-03-01T10:00:00\"}]",
+                view.listing().body());
+    }
+
+    // Corner case - a new admission is listed where the upstream has it, and a repeated ID is listed every time it appears
+    @Tag("unitTest")
+    @Tag("cornerCase")
+    @Test
+    void testListingKeepsUpstreamOrderAndRepeatedRows() throws Exception {
+        CurrentAdmissionsView view = new CurrentAdmissionsView();
+        view.advanceTo(1, List.of(
+                admission(1, "2024-01-01T10:00:00", "0001-01-01T00:00:00", 3),
+                admission(3, "2024-03-01T10:00:00", "0001-01-01T00:00:00", 5)));
+
+        CurrentAdmissionsView.Delta delta = view.advanceTo(2, List.of(
+                admission(1, "2024-01-01T10:00:00", "0001-01-01T00:00:00", 3),
+                admission(2, "2024-02-01T10:00:00", "0001-01-01T00:00:00", 4),
+                admission(3, "2024-03-01T10:00:00", "0001-01-01T00:00:00", 5),
+                admission(3, "2024-03-01T10:00:00", "0001-01-01T00:00:00", 5)));
+
+        assertEquals(List.of(2), delta.admitted().stream().map(Admission::id).toList());
+        assertEquals(List.of(1, 2, 3, 3), view.listing().rows().stream().map(Admission::id).toList());
+        assertEquals("[{\"patientID\":1,\"admissionDate\":\"2024-01-01T10:00:00\"},{\"patientID\":2,\"admissionDate\":\"2024-02-01T10:00:00\"},"
+                        + "{\"patientID\":3,\"admissionDate\":\"2024-03-01T10:00:00\"},{\"patientID\":3,\"admissionDate\":\"2024-03-01T10:00:00\"}]",
+                view.listing().body());
+    }
+
+    // Corner case - a body put together from kept row JSON is the one writing every row afresh would give, through
+    // updates, discharges and a repeated ID whose rows differ
+    @Tag("unitTest")
+    @Tag("cornerCase")
+    @Test
+    void testKeptRowJsonMatchesAFullRewrite() throws Exception {
+        CurrentAdmissionsView view = new CurrentAdmissionsView();
+        view.advanceTo(1, List.of(
+                admission(1, "2024-01-01T10:00:00", "0001-01-01T00:00:00", 3),
+                admission(2, "2024-02-01T10:00:00", "0001-01-01T00:00:00", 4),
+                admission(3, "2024-03-01T10:00:00", "0001-01-01T00:00:00", 5)));
+
+        List<Admission> next = List.of(
+                admission(3, "2024-03-02T10:00:00", "0001-01-01T00:00:00", 5),
+                admission(1, "2024-01-01T10:00:00", "0001-01-01T00:00:00", 3),
+                admission(4, "2024-04-01T10:00:00", "0001-01-01T00:00:00", 6),
+                admission(4, "2024-04-02T10:00:00", "0001-01-01T00:00:00", 6));
+        CurrentAdmissionsView.Delta delta = view.advanceTo(2, next);
+
+        assertEquals(List.of(3), delta.updated().stream().map(Admission::id).toList());
+        assertEquals(List.of(2), delta.discharged().stream().map(Admission::id).toList());
+        assertEquals(HospitalJson.writeArray(next, HospitalJson::writeCurrentAdmission), view.listing().body());
+    }
+
+    // Edge case - an unchanged snapshot keeps the already serialised body
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testUnchangedSnapshotReusesBody() throws Exception {
+        CurrentAdmissionsView view = new CurrentAdmissionsView();
+        List<Admission> admissions = List.of(admission(1, "2024-01-01T10:00:00", "0001-01-01T00:00:00", 3));
+        view.advanceTo(1, admissions);
+        String body = view.listing().body();
+
+        CurrentAdmissionsView.Delta delta = view.advanceTo(2, new ArrayList<>(admissions));
+
+        assertTrue(delta.isEmpty());
+        assertSame(body, view.listing().body());
+        assertEquals(2, view.listing().version());
+    }
+
+    // Edge case - an older snapshot arriving late does not roll the view back
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testOlderSnapshotIsIgnored() throws Exception {
+        CurrentAdmissionsView view = new CurrentAdmissionsView();
+        view.advanceTo(5, List.of(admission(1, "2024-01-01T10:00:00", "0001-01-01T00:00:00", 3)));
+
+        CurrentAdmissionsView.Delta delta = view.advanceTo(4, List.of());
+
+        assertTrue(delta.isEmpty());
+        assertEquals(1, view.listing().rows().size());
+    }
+
+    // Edge case - only the discharge date marks an admission as open
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testSentinelAdmissionDateDoesNotCountAsOpen() throws Exception {
+        CurrentAdmissionsView view = new CurrentAdmissionsView();
+
+        view.advanceTo(1, List.of(admission(1, "0001-01-01T00:00:00", "2024-01-02T10:00:00", 3)));
+
+        assertTrue(view.listing().rows().isEmpty());
+        assertEquals("[]", view.listing().body());
+    }
+
+    // Edge case - listeners hear about changes between snapshots, not about the first snapshot or an unchanged one
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testListenersGetOnlyChangesBetweenSnapshots() throws Exception {
+        CurrentAdmissionsView view = new CurrentAdmissionsView();
+        List<CurrentAdmissionsView.Delta> deltas = new ArrayList<>();
+        view.addListener(deltas::add);
+
+        view.advanceTo(1, List.of(admission(1, "2024-01-01T10:00:00", "0001-01-01T00:00:00", 3)));
+        view.advanceTo(2, List.of(admission(1, "2024-01-01T10:00:00", "0001-01-01T00:00:00", 3)));
+        view.advanceTo(3, List.of(admission(1, "2024-01-01T10:00:00", "2024-01-05T10:00:00", 3)));
+
+        assertEquals(1, deltas.size());
+        assertEquals(3, deltas.get(0).version());
+        assertEquals(1, deltas.get(0).discharged().size());
+    }
+
+    private static Admission admission(int id, String admissionDate, String dischargeDate, int patientID) {
+        return new Admission(id, HospitalJson.parseTime(admissionDate), HospitalJson.parseTime(dischargeDate), patientID);
+    }
+}
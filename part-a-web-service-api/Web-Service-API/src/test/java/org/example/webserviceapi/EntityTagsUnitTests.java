@@ -0,0 +1,63 @@
+package org.example.webserviceapi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityTagsUnitTests {
+
+    @Tag("unitTest")
+    @Test
+    void testTagChangesWithSnapshotVersionAndParameters() {
+        UpstreamSnapshotCache.Snapshot first = new UpstreamSnapshotCache.Snapshot("Admissions", "[]", 1, 0);
+        UpstreamSnapshotCache.Snapshot second = new UpstreamSnapshotCache.Snapshot("Admissions", "[]", 2, 0);
+
+        assertEquals(EntityTags.of("F1", "3", first), EntityTags.of("F1", "3", first));
+        assertNotEquals(EntityTags.of("F1", "3", first), EntityTags.of("F1", "3", second));
+        assertNotEquals(EntityTags.of("F1", "3", first), EntityTags.of("F1", "4", first));
+        assertNotEquals(EntityTags.of("F1", "", first), EntityTags.of("F2", "", first));
+        assertTrue(EntityTags.of("F1", "3", first).startsWith("\""));
+        assertTrue(EntityTags.of("F1", "3", first).endsWith("\""));
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testTagForAVersionMatchesTheSnapshotsTag() {
+        UpstreamSnapshotCache.Snapshot snapshot = new UpstreamSnapshotCache.Snapshot("Admissions", "[]", 7, 0);
+
+        assertEquals(EntityTags.of("F2", "", snapshot), EntityTags.ofVersion("F2", "", 7));
+        assertEquals(EntityTags.of("F2", "limit=5", snapshot), EntityTags.ofVersion("F2", "limit=5", 7));
+        assertNotEquals(EntityTags.of("F2", "", snapshot), EntityTags.ofVersion("F2", "", 8));
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testIfNoneMatchLists() {
+        String etag = "\"abc-F2-7\"";
+
+        assertTrue(EntityTags.matches(etag, etag));
+        assertTrue(EntityTags.matches("\"other\", " + etag, etag));
+        assertFalse(EntityTags.matches("\"other\"", etag));
+        assertFalse(EntityTags.matches(null, etag));
+    }
+
+    // Edge case - If-None-Match compares weakly, and "*" matches whatever is current
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testWeakTagsAndWildcardMatch() {
+        String etag = "\"abc-F2-7\"";
+
+        assertTrue(EntityTags.matches("W/" + etag, etag));
+        assertTrue(EntityTags.matches("*", etag));
+    }
+
+    // Edge case - outside of a request there is no If-None-Match, so nothing is ever "not modified"
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testNothingMatchesOutsideARequest() {
+        assertFalse(EntityTags.notModified(EntityTags.of("F2", "")));
+    }
+}
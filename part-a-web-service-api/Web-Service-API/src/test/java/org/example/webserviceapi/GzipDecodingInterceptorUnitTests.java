@@ -0,0 +1,145 @@
+package org.example.webserviceapi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GzipDecodingInterceptorUnitTests {
+
+    private static final URI ADMISSIONS = URI.create("https://upstream.example/api/Admissions");
+
+    @Tag("unitTest")
+    @Test
+    void testGzippedBodyIsDecoded() throws IOException {
+        GzipDecodingInterceptor interceptor = new GzipDecodingInterceptor();
+        HttpRequest request = request(ADMISSIONS);
+
+        ClientHttpResponse response = interceptor.intercept(request, new byte[0], (sent, body) -> response(HttpStatus.OK, "gzip", gzip("[1,2,3]")));
+
+        assertEquals("gzip", request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+        assertEquals("[1,2,3]", bodyOf(response));
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH));
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testUncompressedBodyIsPassedThrough() throws IOException {
+        GzipDecodingInterceptor interceptor = new GzipDecodingInterceptor();
+
+        ClientHttpResponse response = interceptor.intercept(request(ADMISSIONS), new byte[0],
+                (sent, body) -> response(HttpStatus.OK, null, "[1]".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("[1]", bodyOf(response));
+        assertEquals("3", response.getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH));
+    }
+
+    // Edge case - a gzip Content-Encoding on an empty body, as on a 304, is not decoded
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testEmptyGzipBodyIsEmpty() throws IOException {
+        GzipDecodingInterceptor interceptor = new GzipDecodingInterceptor();
+
+        ClientHttpResponse response = interceptor.intercept(request(ADMISSIONS), new byte[0], (sent, body) -> response(HttpStatus.NOT_MODIFIED, "gzip", new byte[0]));
+
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatusCode().value());
+        assertEquals("", bodyOf(response));
+    }
+
+    // Corner case - an Accept-Encoding the caller set itself is left alone
+    @Tag("unitTest")
+    @Tag("cornerCase")
+    @Test
+    void testCallersAcceptEncodingIsKept() throws IOException {
+        GzipDecodingInterceptor interceptor = new GzipDecodingInterceptor();
+        HttpRequest request = request(ADMISSIONS);
+        request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "identity");
+
+        interceptor.intercept(request, new byte[0], (sent, body) -> response(HttpStatus.OK, null, new byte[0])).close();
+
+        assertEquals("identity", request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    private static HttpRequest request(URI uri) {
+        HttpHeaders headers = new HttpHeaders();
+        return new HttpRequest() {
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+
+            @Override
+            public URI getURI() {
+                return uri;
+            }
+
+            @Override
+            public HttpMethod getMethod() {
+                return HttpMethod.GET;
+            }
+        };
+    }
+
+    private static ClientHttpResponse response(HttpStatus status, String contentEncoding, byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (contentEncoding != null) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+        }
+        headers.setContentLength(body.length);
+        return new ClientHttpResponse() {
+            @Override
+            public HttpStatusCode getStatusCode() {
+                return status;
+            }
+
+            @Override
+            public String getStatusText() {
+                return status.getReasonPhrase();
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(body);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return gzipped.toByteArray();
+    }
+
+    private static String bodyOf(ClientHttpResponse response) throws IOException {
+        try (InputStream in = response.getBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
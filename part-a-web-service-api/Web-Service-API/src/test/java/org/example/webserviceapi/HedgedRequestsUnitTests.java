@@ -0,0 +1,164 @@
+package org.example.webserviceapi;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgedRequestsUnitTests {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private final List<String> outcomes = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testStalledCallIsHedgedAndTheHedgeWins() throws Exception {
+        HedgedRequests hedgedRequests = warmedUp(1.0, 1);
+        CountDownLatch stalled = new CountDownLatch(1);
+
+        String result = hedgedRequests.submit(executor, () -> {
+            try {
+                stalled.await();
+            } catch (InterruptedException e) {
+                fail("the losing primary is left to finish");
+            }
+            return "primary";
+        }, () -> "hedge").get(5, TimeUnit.SECONDS);
+
+        assertEquals("hedge", result);
+        assertEquals(HedgedRequests.HEDGE_WON, lastOutcome());
+
+        // The primary's latency counts once it answers, though it lost
+        stalled.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hedgedRequests.latencySamples() <= HedgedRequests.MIN_SAMPLES && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(HedgedRequests.MIN_SAMPLES + 1, hedgedRequests.latencySamples());
+    }
+
+    // Corner case - the hedge runs on its own pool, so it answers while the primaries' pool is stalled
+    @Tag("unitTest")
+    @Tag("cornerCase")
+    @Test
+    void testHedgeDoesNotQueueBehindStalledCalls() throws Exception {
+        HedgedRequests hedgedRequests = warmedUp(1.0, 1);
+        ExecutorService stalledExecutor = Executors.newSingleThreadExecutor();
+        CountDownLatch stalled = new CountDownLatch(1);
+        try {
+            stalledExecutor.execute(() -> {
+                try {
+                    stalled.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            String result = hedgedRequests.<String>submit(stalledExecutor, () -> "primary",
+                    () -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+
+            assertTrue(result.startsWith("upstream-hedge-"));
+        } finally {
+            stalled.countDown();
+            stalledExecutor.shutdownNow();
+        }
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testPromptCallIsNotHedged() throws Exception {
+        HedgedRequests hedgedRequests = warmedUp(1.0, 1000);
+
+        assertEquals("primary", hedgedRequests.<String>submit(executor, () -> "primary", () -> fail("no hedge needed")).get(5, TimeUnit.SECONDS));
+        assertEquals(HedgedRequests.UNHEDGED, lastOutcome());
+    }
+
+    // Edge case - with too few latencies to take a percentile from, nothing is hedged
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testNoHedgingBeforeEnoughLatencies() throws Exception {
+        HedgedRequests hedgedRequests = new HedgedRequests(outcomes::add);
+
+        assertEquals("primary", hedgedRequests.<String>submit(executor, () -> {
+            sleep(50);
+            return "primary";
+        }, () -> fail("nothing to hedge against yet")).get(5, TimeUnit.SECONDS));
+        assertEquals(-1, hedgedRequests.currentDelayNanos());
+    }
+
+    // Boundary case - with no budget a stalled call is left to finish on its own
+    @Tag("unitTest")
+    @Tag("boundaryCase")
+    @Test
+    void testNoHedgeOverBudget() throws Exception {
+        HedgedRequests hedgedRequests = warmedUp(0.0, 1);
+
+        assertEquals("primary", hedgedRequests.<String>submit(executor, () -> {
+            sleep(50);
+            return "primary";
+        }, () -> fail("over budget")).get(5, TimeUnit.SECONDS));
+        assertEquals(HedgedRequests.OVER_BUDGET, lastOutcome());
+    }
+
+    // Edge case - a failed primary does not fail the result while its hedge can still answer
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testHedgeAnswersWhenThePrimaryFails() throws Exception {
+        HedgedRequests hedgedRequests = warmedUp(1.0, 1);
+
+        String result = hedgedRequests.submit(executor, () -> {
+            sleep(50);
+            throw new IllegalStateException("Upstream reset the connection");
+        }, () -> "hedge").get(5, TimeUnit.SECONDS);
+
+        assertEquals("hedge", result);
+        assertEquals(HedgedRequests.HEDGE_WON, lastOutcome());
+    }
+
+    // Enough prompt calls for the hedge delay to settle on its minimum
+    private HedgedRequests warmedUp(double budget, long minDelayMs) throws Exception {
+        HedgedRequests hedgedRequests = new HedgedRequests(outcomes::add);
+        hedgedRequests.setMinDelay(Duration.ofMillis(minDelayMs));
+        hedgedRequests.setBudget(budget);
+        for (int i = 0; i < HedgedRequests.MIN_SAMPLES; i++) {
+            hedgedRequests.submit(executor, () -> "warm-up", () -> "warm-up").get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(Duration.ofMillis(minDelayMs).toNanos(), hedgedRequests.currentDelayNanos());
+        return hedgedRequests;
+    }
+
+    // Outcomes are reported as the result completes, which can be just after get() returns
+    private String lastOutcome() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        int expected = HedgedRequests.MIN_SAMPLES + 1;
+        while (outcomes.size() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        return outcomes.get(outcomes.size() - 1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.webserviceapi;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// End-to-end load tests against the local upstream simulator, run with ./gradlew loadTest rather than as part of test.
+// Each test fails if a latency budget is exceeded, so regressions show up before they reach production.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "hospital.cache.ttl-seconds=1")
+class HospitalControllerLoadTests {
+
+    private static final int ROWS = 100_000;
+    private static final int REQUESTS_PER_SECOND = 200;
+    private static final Duration RUN_TIME = Duration.ofSeconds(10);
+
+    // Latency budgets per endpoint, measured from when each request was due
+    private static final Duration P95_BUDGET = Duration.ofMillis(100);
+    private static final Duration P99_BUDGET = Duration.ofMillis(250);
+
+    private static final SyntheticDatasets DATASETS = new SyntheticDatasets(ROWS);
+    private static final UpstreamSimulator UPSTREAM = startUpstream();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("hospital.upstream.base-url", UPSTREAM::baseUrl);
+    }
+
+    @AfterEach
+    void resetUpstream() {
+        UPSTREAM.latency(Duration.ofMillis(20), Duration.ofMillis(20)).errorRate(0);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        UPSTREAM.close();
+    }
+
+
+    @Tag("loadTest")
+    @Test
+    void testLatencyBudgetsUnderLoad() throws InterruptedException {
+        List<String> paths = List.of(
+                "Admission/" + DATASETS.patientCount() / 2,
+                "CurrentAdmissions",
+                "EmployeeWithMostAdmissions",
+                "EmployeesWithZeroAdmissions");
+        LoadGenerator loadGenerator = new LoadGenerator("http://localhost:" + port);
+
+        // Warm up the snapshot cache and the JIT before measuring
+        loadGenerator.run(paths, REQUESTS_PER_SECOND / 4, Duration.ofSeconds(3));
+        LoadGenerator.LoadReport report = loadGenerator.run(paths, REQUESTS_PER_SECOND, RUN_TIME);
+        System.out.println(report);
+
+        assertEquals(0, report.totalErrors(), "No request should fail with a healthy upstream");
+        for (String path : report.paths()) {
+            assertTrue(report.percentile(path, 95).compareTo(P95_BUDGET) <= 0, path + " p95 over budget: " + report.percentile(path, 95));
+            assertTrue(report.percentile(path, 99).compareTo(P99_BUDGET) <= 0, path + " p99 over budget: " + report.percentile(path, 99));
+        }
+    }
+
+    // Edge case - failing upstream refreshes are absorbed by the stale snapshot rather than passed on
+    @Tag("loadTest")
+    @Tag("edgeCase")
+    @Test
+    void testUpstreamErrorsDoNotReachCachedEndpoints() throws InterruptedException {
+        List<String> paths = List.of("Admission/" + DATASETS.patientCount() / 2, "CurrentAdmissions");
+        LoadGenerator loadGenerator = new LoadGenerator("http://localhost:" + port);
+
+        loadGenerator.run(paths, REQUESTS_PER_SECOND / 4, Duration.ofSeconds(2));
+        UPSTREAM.errorRate(0.2);
+        LoadGenerator.LoadReport report = loadGenerator.run(paths, REQUESTS_PER_SECOND, RUN_TIME);
+        System.out.println(report);
+
+        assertTrue(UPSTREAM.errors() > 0, "The simulator should have failed some refreshes");
+        assertEquals(0, report.totalErrors());
+        for (String path : report.paths()) {
+            assertTrue(report.percentile(path, 99).compareTo(P99_BUDGET) <= 0, path + " p99 over budget: " + report.percentile(path, 99));
+        }
+    }
+
+    private static UpstreamSimulator startUpstream() {
+        try {
+            return new UpstreamSimulator(DATASETS).latency(Duration.ofMillis(20), Duration.ofMillis(20));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
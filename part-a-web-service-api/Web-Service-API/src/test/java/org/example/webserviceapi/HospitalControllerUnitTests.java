@@ -1,20 +1,33 @@
 package org.example.webserviceapi;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.example.webserviceapi.HospitalController;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @SpringBootTest(classes = HospitalController.class)
 class HospitalControllerUnitTests {
@@ -160,6 +173,52 @@ class HospitalControllerUnitTests {
     }
 
 
+    @Tag("unitTest")
+    @Test
+    void testGetAdmissionsForPatients() {
+        String expectedResponse = "{\"1\":[{\"admissionId\":2,\"admissionDate\":\"2020-12-07T22:14:00\",\"dischargeDate\":\"0001-01-01T00:00:00\"}],\"3\":null,\"2\":[{\"admissionId\":1,\"admissionDate\":\"2020-11-28T16:45:00\",\"dischargeDate\":\"2020-11-28T23:56:00\"},{\"admissionId\":3,\"admissionDate\":\"2021-09-23T21:50:00\",\"dischargeDate\":\"2021-09-27T09:56:00\"}]}";
+
+        // Mock the RestTemplate's getForEntity method to return the expected response
+        when(restTemplate.getForEntity(API_BASE_URL + "Admissions", String.class)).thenReturn(getAdmissions());
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        ResponseEntity<String> getResponse = hospitalController.getAdmissionsForPatients("1,3,2");
+        ResponseEntity<String> postResponse = hospitalController.postAdmissionsForPatients(List.of("1", "3", "2"));
+
+        assertEquals(HttpStatus.OK, getResponse.getStatusCode());
+        assertEquals(expectedResponse, getResponse.getBody());
+        assertEquals(expectedResponse, postResponse.getBody());
+        // All the patients are answered from one download of Admissions
+        verify(restTemplate, times(1)).getForEntity(API_BASE_URL + "Admissions", String.class);
+    }
+
+    // Edge case - repeated IDs are answered once, and IDs F1 would not match are not-found markers
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testGetAdmissionsForPatientsWithRepeatedAndInvalidIDs() {
+        // Mock the RestTemplate's getForEntity method to return the expected response
+        when(restTemplate.getForEntity(API_BASE_URL + "Admissions", String.class)).thenReturn(getAdmissions());
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        ResponseEntity<String> response = hospitalController.getAdmissionsForPatients("1, 1,T,-1");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("{\"1\":[{\"admissionId\":2,\"admissionDate\":\"2020-12-07T22:14:00\",\"dischargeDate\":\"0001-01-01T00:00:00\"}],\"T\":null,\"-1\":null}", response.getBody());
+    }
+
+    // Boundary case - a batch must ask for at least one and at most the maximum number of patients
+    @Tag("unitTest")
+    @Tag("boundaryCase")
+    @Test
+    void testAdmissionsForPatientsBatchSize() {
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        hospitalController.setMaxBatchSize(2);
+
+        assertEquals(HttpStatus.BAD_REQUEST, hospitalController.postAdmissionsForPatients(List.of()).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, hospitalController.postAdmissionsForPatients(List.of("1", "2", "5")).getStatusCode());
+    }
+
     @Tag("unitTest")
     @Test
     void testGetCurrentAdmissions() {
@@ -179,6 +238,36 @@ class HospitalControllerUnitTests {
         assertEquals(expectedResponse, actualResponse.getBody());
     }
 
+    @Tag("unitTest")
+    @Test
+    void testCurrentAdmissionsNotModified() {
+        when(restTemplate.getForEntity(API_BASE_URL + "Admissions", String.class)).thenReturn(getAdmissions());
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        ResponseEntity<String> firstResponse = hospitalController.getCurrentAdmissions();
+        String etag = firstResponse.getHeaders().getETag();
+        assertNotNull(etag);
+
+        ResponseEntity<String> repeatedResponse = withIfNoneMatch(etag, hospitalController::getCurrentAdmissions);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, repeatedResponse.getStatusCode());
+        assertEquals(etag, repeatedResponse.getHeaders().getETag());
+        assertNull(repeatedResponse.getBody());
+    }
+
+    // Corner case - If-None-Match: * only matches a representation that exists, so a missing patient is still a 404
+    @Tag("unitTest")
+    @Tag("cornerCase")
+    @Test
+    void testWildcardIfNoneMatchOnMissingPatient() {
+        when(restTemplate.getForEntity(API_BASE_URL + "Admissions", String.class)).thenReturn(getAdmissions());
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+
+        assertEquals(HttpStatus.NOT_FOUND, withIfNoneMatch("*", () -> hospitalController.getAdmissionsForSpecificPatient("3")).getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, withIfNoneMatch("*", () -> hospitalController.getAdmissionsForSpecificPatient("5")).getStatusCode());
+    }
+
     @Tag("unitTest")
     @Test
     void testGetNoAdmissions() {
@@ -213,6 +302,30 @@ class HospitalControllerUnitTests {
 
         assertEquals(HttpStatus.OK, actualResponse.getStatusCode());
         assertEquals(expectedResponse, actualResponse.getBody());
+        // Answered from Employees/4, which no snapshot version covers
+        assertNull(actualResponse.getHeaders().getETag());
+    }
+
+    // Edge case - responses including Employees/{id} answers, which no snapshot version covers, carry no ETag
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testResponsesFromEmployeeCallsAreNotTagged() {
+        when(restTemplate.getForEntity(API_BASE_URL + "Allocations", String.class)).thenReturn(getAllocations());
+        when(restTemplate.getForEntity(API_BASE_URL + "Employees", String.class)).thenReturn(getEmployees());
+        when(restTemplate.getForEntity(API_BASE_URL + "Employees/4", String.class)).thenReturn(getSpecificEmployee(4));
+        for (int employeeID : new int[]{1, 2, 5}) {
+            when(restTemplate.getForEntity(API_BASE_URL + "Employees/" + employeeID, String.class)).thenReturn(getSpecificEmployee(employeeID));
+        }
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        ResponseEntity<String> zeroAdmissions = hospitalController.getEmployeesWithZeroAdmissions();
+        ResponseEntity<String> zeroAdmissionsPage = hospitalController.getEmployeesWithZeroAdmissionsPage(2, null);
+
+        assertEquals(HttpStatus.OK, zeroAdmissions.getStatusCode());
+        assertNull(zeroAdmissions.getHeaders().getETag());
+        assertEquals(HttpStatus.OK, zeroAdmissionsPage.getStatusCode());
+        assertNull(zeroAdmissionsPage.getHeaders().getETag());
     }
 
     //Edge case - Admissions endpoint is empty
@@ -279,6 +392,321 @@ class HospitalControllerUnitTests {
         assertEquals(expectedResponse, actualResponse.getBody());
     }
 
+    @Tag("unitTest")
+    @Test
+    void testEmployeesWithZeroAdmissionsAnsweredFromBulkList() {
+        // Mock the RestTemplate's getForEntity method to return the expected response
+        when(restTemplate.getForEntity(API_BASE_URL + "Allocations", String.class)).thenReturn(getAllocations());
+        when(restTemplate.getForEntity(API_BASE_URL + "Employees", String.class)).thenReturn(getEmployees());
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        ResponseEntity<String> actualResponse = hospitalController.getEmployeesWithZeroAdmissions();
+
+        assertEquals(HttpStatus.OK, actualResponse.getStatusCode());
+        // The bulk Employees records are complete, so no per-employee calls are needed
+        verify(restTemplate, never()).getForEntity(API_BASE_URL + "Employees/1", String.class);
+        verify(restTemplate, never()).getForEntity(API_BASE_URL + "Employees/2", String.class);
+        verify(restTemplate, never()).getForEntity(API_BASE_URL + "Employees/5", String.class);
+    }
+
+    // Edge case - bulk Employees record without detail fields falls back to Employees/{id}
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testEmployeesWithZeroAdmissionsFetchesIncompleteRecords() {
+        String expectedResponse = "[{\"id\":1,\"surname\":\"Finley\",\"forename\":\"Sarah\"},{\"id\":2,\"surname\":\"Jackson\",\"forename\":\"Robert\"},{\"id\":5,\"surname\":\"Wicks\",\"forename\":\"Patrick\"}]";
+        String employeesWithMissingFields = "[{\"id\":1},{\"id\":2,\"surname\":\"Jackson\",\"forename\":\"Robert\"},{\"id\":3,\"surname\":\"Allen\",\"forename\":\"Alice\"},{\"id\":4,\"surname\":\"Jones\",\"forename\":\"Sarah\"},{\"id\":5,\"surname\":\"Wicks\"},{\"id\":6,\"surname\":\"Smith\",\"forename\":\"Alice\"}]";
+
+        // Mock the RestTemplate's getForEntity method to return the expected response
+        when(restTemplate.getForEntity(API_BASE_URL + "Allocations", String.class)).thenReturn(getAllocations());
+        when(restTemplate.getForEntity(API_BASE_URL + "Employees", String.class)).thenReturn(new ResponseEntity<>(employeesWithMissingFields, HttpStatus.OK));
+        when(restTemplate.getForEntity(API_BASE_URL + "Employees/1", String.class)).thenReturn(getSpecificEmployee(1));
+        when(restTemplate.getForEntity(API_BASE_URL + "Employees/5", String.class)).thenReturn(getSpecificEmployee(5));
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        ResponseEntity<String> actualResponse = hospitalController.getEmployeesWithZeroAdmissions();
+
+        assertEquals(HttpStatus.OK, actualResponse.getStatusCode());
+        assertEquals(expectedResponse, actualResponse.getBody());
+        verify(restTemplate, never()).getForEntity(API_BASE_URL + "Employees/2", String.class);
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testStreamCurrentAdmissions() throws IOException {
+        String expectedResponse = "[{\"patientID\":2,\"admissionDate\":\"2020-12-07T22:14:00\"},{\"patientID\":6,\"admissionDate\":\"2024-04-19T21:50:00\"}]";
+
+        // Mock the RestTemplate's getForEntity method to return the expected response
+        when(restTemplate.getForEntity(API_BASE_URL + "Admissions", String.class)).thenReturn(getAdmissions());
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        ResponseEntity<StreamingResponseBody> actualResponse = hospitalController.streamCurrentAdmissions();
+
+        assertEquals(HttpStatus.OK, actualResponse.getStatusCode());
+        assertEquals(expectedResponse, writeStreamingBody(actualResponse));
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testStreamNoAdmissions() throws IOException {
+        // Mock the RestTemplate's getForEntity method to return an empty list of admissions
+        when(restTemplate.getForEntity(API_BASE_URL + "Admissions", String.class)).thenReturn(new ResponseEntity<>("[]", HttpStatus.OK));
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        ResponseEntity<StreamingResponseBody> actualResponse = hospitalController.streamCurrentAdmissions();
+
+        assertEquals(HttpStatus.NOT_FOUND, actualResponse.getStatusCode());
+        assertEquals("No patients currently admitted", writeStreamingBody(actualResponse));
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testStreamEmployeesWithZeroAdmissions() throws IOException {
+        String expectedResponse = "[{\"id\":1,\"surname\":\"Finley\",\"forename\":\"Sarah\"},{\"id\":2,\"surname\":\"Jackson\",\"forename\":\"Robert\"},{\"id\":5,\"surname\":\"Wicks\",\"forename\":\"Patrick\"}]";
+
+        // Mock the RestTemplate's getForEntity method to return the expected response
+        when(restTemplate.getForEntity(API_BASE_URL + "Allocations", String.class)).thenReturn(getAllocations());
+        when(restTemplate.getForEntity(API_BASE_URL + "Employees", String.class)).thenReturn(getEmployees());
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        ResponseEntity<StreamingResponseBody> actualResponse = hospitalController.streamEmployeesWithZeroAdmissions();
+
+        assertEquals(HttpStatus.OK, actualResponse.getStatusCode());
+        assertEquals(expectedResponse, writeStreamingBody(actualResponse));
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testEmployeeWithMostAdmissionsAnsweredFromBulkList() {
+        String expectedResponse = "{\"id\":4,\"surname\":\"Jones\",\"forename\":\"Sarah\"}";
+
+        // Mock the RestTemplate's getForEntity method to return the expected response
+        when(restTemplate.getForEntity(API_BASE_URL + "Allocations", String.class)).thenReturn(getAllocations());
+        when(restTemplate.getForEntity(API_BASE_URL + "Employees", String.class)).thenReturn(getEmployees());
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        ResponseEntity<String> actualResponse = hospitalController.getEmployeeWithMostAdmissions();
+
+        assertEquals(HttpStatus.OK, actualResponse.getStatusCode());
+        assertEquals(expectedResponse, actualResponse.getBody());
+        verify(restTemplate, never()).getForEntity(API_BASE_URL + "Employees/4", String.class);
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testGetEmployeesByAdmissionCount() {
+        String expectedResponse = "[{\"id\":4,\"surname\":\"Jones\",\"forename\":\"Sarah\",\"admissionCount\":2},{\"id\":3,\"surname\":\"Allen\",\"forename\":\"Alice\",\"admissionCount\":1}]";
+
+        // Mock the RestTemplate's getForEntity method to return the expected response
+        when(restTemplate.getForEntity(API_BASE_URL + "Allocations", String.class)).thenReturn(getAllocations());
+        when(restTemplate.getForEntity(API_BASE_URL + "Employees", String.class)).thenReturn(getEmployees());
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        ResponseEntity<String> actualResponse = hospitalController.getEmployeesByAdmissionCount(2);
+
+        assertEquals(HttpStatus.OK, actualResponse.getStatusCode());
+        assertEquals(expectedResponse, actualResponse.getBody());
+    }
+
+    // Boundary case - top must ask for at least one employee
+    @Tag("unitTest")
+    @Tag("boundaryCase")
+    @Test
+    void testGetEmployeesByAdmissionCountRejectsZero() {
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        ResponseEntity<String> actualResponse = hospitalController.getEmployeesByAdmissionCount(0);
+
+        assertEquals(HttpStatus.BAD_REQUEST, actualResponse.getStatusCode());
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testGetAdmissionsAt() {
+        String expectedResponse = "[{\"id\":2,\"admissionDate\":\"2020-12-07T22:14:00\",\"dischargeDate\":\"0001-01-01T00:00:00\",\"patientID\":1}]";
+
+        // Mock the RestTemplate's getForEntity method to return the expected response
+        when(restTemplate.getForEntity(API_BASE_URL + "Admissions", String.class)).thenReturn(getAdmissions());
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        ResponseEntity<String> actualResponse = hospitalController.getAdmissionsAt("2021-01-01T00:00:00");
+
+        assertEquals(HttpStatus.OK, actualResponse.getStatusCode());
+        assertEquals(expectedResponse, actualResponse.getBody());
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testGetAdmissionsBetween() {
+        String expectedResponse = "[{\"id\":2,\"admissionDate\":\"2020-12-07T22:14:00\",\"dischargeDate\":\"0001-01-01T00:00:00\",\"patientID\":1},{\"id\":4,\"admissionDate\":\"2024-02-23T21:50:00\",\"dischargeDate\":\"2024-09-27T09:56:00\",\"patientID\":5},{\"id\":5,\"admissionDate\":\"2024-04-12T22:55:00\",\"dischargeDate\":\"2024-04-14T11:36:00\",\"patientID\":5},{\"id\":6,\"admissionDate\":\"2024-04-19T21:50:00\",\"dischargeDate\":\"0001-01-01T00:00:00\",\"patientID\":5}]";
+
+        // Mock the RestTemplate's getForEntity method to return the expected response
+        when(restTemplate.getForEntity(API_BASE_URL + "Admissions", String.class)).thenReturn(getAdmissions());
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        ResponseEntity<String> actualResponse = hospitalController.getAdmissionsBetween("2024-04-13T00:00:00", "2024-04-20T00:00:00");
+
+        assertEquals(HttpStatus.OK, actualResponse.getStatusCode());
+        assertEquals(expectedResponse, actualResponse.getBody());
+    }
+
+    // Edge case - a time that is not a date-time, and a range given the wrong way round
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testAdmissionsInPeriodRejectsBadTimes() {
+        HospitalController hospitalController = new HospitalController(restTemplate);
+
+        assertEquals(HttpStatus.BAD_REQUEST, hospitalController.getAdmissionsAt("yesterday").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, hospitalController.getAdmissionsBetween("2024-04-20T00:00:00", "2024-04-13T00:00:00").getStatusCode());
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testGetCurrentAdmissionsPages() {
+        // Mock the RestTemplate's getForEntity method to return the expected response
+        when(restTemplate.getForEntity(API_BASE_URL + "Admissions", String.class)).thenReturn(getAdmissions());
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        ResponseEntity<String> firstPage = hospitalController.getCurrentAdmissionsPage(1, null);
+        ResponseEntity<String> secondPage = hospitalController.getCurrentAdmissionsPage(1, nextCursor(firstPage));
+
+        assertEquals(HttpStatus.OK, firstPage.getStatusCode());
+        assertEquals("[{\"patientID\":2,\"admissionDate\":\"2020-12-07T22:14:00\"}]", firstPage.getBody());
+        assertEquals(HttpStatus.OK, secondPage.getStatusCode());
+        assertEquals("[{\"patientID\":6,\"admissionDate\":\"2024-04-19T21:50:00\"}]", secondPage.getBody());
+        assertNull(secondPage.getHeaders().getFirst("Link"), "The last page should not link to another");
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testGetEmployeesWithZeroAdmissionsPages() {
+        // Mock the RestTemplate's getForEntity method to return the expected response
+        when(restTemplate.getForEntity(API_BASE_URL + "Allocations", String.class)).thenReturn(getAllocations());
+        when(restTemplate.getForEntity(API_BASE_URL + "Employees", String.class)).thenReturn(getEmployees());
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        ResponseEntity<String> firstPage = hospitalController.getEmployeesWithZeroAdmissionsPage(2, null);
+        ResponseEntity<String> secondPage = hospitalController.getEmployeesWithZeroAdmissionsPage(2, nextCursor(firstPage));
+
+        assertEquals("[{\"id\":1,\"surname\":\"Finley\",\"forename\":\"Sarah\"},{\"id\":2,\"surname\":\"Jackson\",\"forename\":\"Robert\"}]", firstPage.getBody());
+        assertEquals("[{\"id\":5,\"surname\":\"Wicks\",\"forename\":\"Patrick\"}]", secondPage.getBody());
+        // The filtered result is pinned by the first page, so the second page downloads nothing more
+        verify(restTemplate, times(1)).getForEntity(API_BASE_URL + "Allocations", String.class);
+        verify(restTemplate, times(1)).getForEntity(API_BASE_URL + "Employees", String.class);
+    }
+
+    // Edge case - a limit outside 1 to the maximum page size, and a cursor this service did not issue
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testPagesRejectBadLimitsAndCursors() {
+        HospitalController hospitalController = new HospitalController(restTemplate);
+
+        assertEquals(HttpStatus.BAD_REQUEST, hospitalController.getCurrentAdmissionsPage(0, null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, hospitalController.getCurrentAdmissionsPage(1001, null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, hospitalController.getEmployeesWithZeroAdmissionsPage(10, "bm90LWEtY3Vyc29y").getStatusCode());
+    }
+
+    // Boundary case - a cursor into a result that is no longer kept has expired
+    @Tag("unitTest")
+    @Tag("boundaryCase")
+    @Test
+    void testExpiredCursorIsGone() {
+        String secondVersion = getAdmissions().getBody().replace("\"id\":6,", "\"id\":7,");
+        // Mock the RestTemplate's getForEntity method to return changed Admissions on every later download
+        when(restTemplate.getForEntity(API_BASE_URL + "Admissions", String.class))
+                .thenReturn(getAdmissions(), new ResponseEntity<>(secondVersion, HttpStatus.OK));
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        hospitalController.setPinnedResults(1);
+        hospitalController.setCacheTtlSeconds(0);
+        hospitalController.setCacheMaxStaleSeconds(0);
+        ResponseEntity<String> firstPage = hospitalController.getCurrentAdmissionsPage(1, null);
+        hospitalController.getCurrentAdmissionsPage(1, null);
+
+        assertEquals(HttpStatus.GONE, hospitalController.getCurrentAdmissionsPage(1, nextCursor(firstPage)).getStatusCode());
+    }
+
+    // Edge case - an upstream call still outstanding at the request deadline
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testSlowUpstreamExceedsRequestDeadline() {
+        // Mock the RestTemplate's getForEntity method to answer Employees only after the deadline has passed
+        when(restTemplate.getForEntity(API_BASE_URL + "Allocations", String.class)).thenReturn(getAllocations());
+        when(restTemplate.getForEntity(API_BASE_URL + "Employees", String.class)).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return getEmployees();
+        });
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        hospitalController.setRequestDeadlineMs(100);
+        ResponseEntity<String> actualResponse = hospitalController.getEmployeesWithZeroAdmissions();
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, actualResponse.getStatusCode());
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testRepeatedRequestsAreServedFromSnapshotCache() {
+        ResponseEntity<String> mockAdmissionsEntity = getAdmissions();
+
+        // Mock the RestTemplate's getForEntity method to return the expected response
+        when(restTemplate.getForEntity(API_BASE_URL + "Admissions", String.class)).thenReturn(mockAdmissionsEntity);
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        ResponseEntity<String> F1Response = hospitalController.getAdmissionsForSpecificPatient("5");
+        ResponseEntity<String> F2Response = hospitalController.getCurrentAdmissions();
+
+        assertEquals(HttpStatus.OK, F1Response.getStatusCode());
+        assertEquals(HttpStatus.OK, F2Response.getStatusCode());
+        // Both endpoints share one download of the Admissions dataset
+        verify(restTemplate, times(1)).getForEntity(API_BASE_URL + "Admissions", String.class);
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testUpstreamParseAndSerialiseTimingsAreRecorded() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        // Mock the RestTemplate's getForEntity method to return the expected response
+        when(restTemplate.getForEntity(API_BASE_URL + "Admissions", String.class)).thenReturn(getAdmissions());
+
+        HospitalController hospitalController = new HospitalController(restTemplate);
+        hospitalController.setMeterRegistry(meterRegistry);
+        hospitalController.getCurrentAdmissions();
+
+        assertEquals(1, meterRegistry.get("hospital.upstream.requests").tags("path", "Admissions", "status", "200").timer().count());
+        assertEquals(getAdmissions().getBody().length(), meterRegistry.get("hospital.upstream.response.size").tag("path", "Admissions").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("hospital.json.parse").tag("dataset", "Admissions").timer().count());
+        assertEquals(1, meterRegistry.get("hospital.json.serialise").tag("endpoint", "F2").timer().count());
+    }
+
+    private static String writeStreamingBody(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    // The cursor in a page's Link header to the next page
+    private static String nextCursor(ResponseEntity<String> page) {
+        String link = page.getHeaders().getFirst("Link");
+        assertNotNull(link, "The page should link to the next one");
+        return link.substring(link.indexOf("cursor=") + "cursor=".length(), link.indexOf('>'));
+    }
+
+    // Calls the endpoint as if from a request carrying the If-None-Match header
+    private static ResponseEntity<String> withIfNoneMatch(String ifNoneMatch, Supplier<ResponseEntity<String>> endpoint) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            return endpoint.get();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
     private static ResponseEntity<String> getAdmissions() {
         String mockAPIResponse = "[{\"id\":1,\"admissionDate\":\"2020-11-28T16:45:00\",\"dischargeDate\":\"2020-11-28T23:56:00\",\"patientID\":2},{\"id\":2,\"admissionDate\":\"2020-12-07T22:14:00\",\"dischargeDate\":\"0001-01-01T00:00:00\",\"patientID\":1},{\"id\":3,\"admissionDate\":\"2021-09-23T21:50:00\",\"dischargeDate\":\"2021-09-27T09:56:00\",\"patientID\":2},{\"id\":4,\"admissionDate\":\"2024-02-23T21:50:00\",\"dischargeDate\":\"2024-09-27T09:56:00\",\"patientID\":5},{\"id\":5,\"admissionDate\":\"2024-04-12T22:55:00\",\"dischargeDate\":\"2024-04-14T11:36:00\",\"patientID\":5},{\"id\":6,\"admissionDate\":\"2024-04-19T21:50:00\",\"dischargeDate\":\"0001-01-01T00:00:00\",\"patientID\":5}]";
 
@@ -0,0 +1,163 @@
+package org.example.webserviceapi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HospitalJsonUnitTests {
+
+    @Tag("unitTest")
+    @Test
+    void testParseAdmissions() throws IOException {
+        List<Admission> admissions = HospitalJson.parseAdmissions("[{\"id\":2,\"admissionDate\":\"2020-12-07T22:14:00\",\"dischargeDate\":\"0001-01-01T00:00:00\",\"patientID\":1}]");
+
+        assertEquals(1, admissions.size());
+        assertEquals(2, admissions.get(0).id());
+        assertEquals(1, admissions.get(0).patientID());
+        assertEquals(LocalDateTime.of(2020, 12, 7, 22, 14).toEpochSecond(ZoneOffset.UTC), admissions.get(0).admissionDate());
+        assertEquals(Admission.NOT_DISCHARGED, admissions.get(0).dischargeDate());
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testParseAdmissionColumns() throws IOException {
+        String json = "[{\"id\":1,\"admissionDate\":\"2020-11-28T16:45:00\",\"dischargeDate\":\"2020-11-28T23:56:00\",\"patientID\":2},"
+                + "{\"id\":2,\"admissionDate\":\"2020-12-07T22:14:00\",\"dischargeDate\":\"0001-01-01T00:00:00\",\"patientID\":1}]";
+
+        AdmissionColumns columns = HospitalJson.parseAdmissionColumns(json);
+        List<Admission> admissions = HospitalJson.parseAdmissions(json);
+
+        assertEquals(2, columns.size());
+        assertEquals(admissions.get(0), columns.get(0));
+        assertEquals(admissions.get(1), columns.get(1));
+        assertFalse(columns.isOpen(0));
+        assertTrue(columns.isOpen(1));
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testParseAllocationsAndEmployees() throws IOException {
+        List<Allocation> allocations = HospitalJson.parseAllocations("[{\"id\":1,\"admissionID\":3,\"employeeID\":4,\"startTime\":\"2020-11-28T16:45:00\",\"endTime\":\"2020-11-28T23:56:00\"}]");
+        List<Employee> employees = HospitalJson.parseEmployees("[{\"id\":4,\"surname\":\"Jones\",\"forename\":\"Sarah\"}]");
+
+        String employee = "{\"id\":4,\"surname\":\"Jones\",\"forename\":\"Sarah\"}";
+        assertEquals(new Allocation(1, 3, 4), allocations.get(0));
+        assertEquals(new Employee(4, "Jones", "Sarah", employee), employees.get(0));
+        assertEquals(new Employee(4, "Jones", "Sarah", employee), HospitalJson.parseEmployee(employee));
+    }
+
+    // Edge case - unknown fields are skipped and missing fields are marked as missing
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testUnknownAndMissingFields() throws IOException {
+        List<Admission> admissions = HospitalJson.parseAdmissions("[{\"id\":1,\"ward\":{\"name\":\"A\",\"beds\":[1,2]},\"admissionDate\":null}]");
+        Employee employee = HospitalJson.parseEmployee("{\"id\":1}");
+
+        assertEquals(new Admission(1, HospitalJson.MISSING_TIME, HospitalJson.MISSING_TIME, HospitalJson.MISSING_ID), admissions.get(0));
+        assertFalse(employee.hasDetails());
+    }
+
+    // Edge case - anything other than an array of objects is rejected
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testInvalidDatasetsAreRejected() {
+        assertThrows(IOException.class, () -> HospitalJson.parseAdmissions("{}"));
+        assertThrows(IOException.class, () -> HospitalJson.parseAdmissions("[1,2]"));
+    }
+
+    // Edge case - a date that cannot be parsed is kept as its text rather than failing the dataset, and the times of an
+    // allocation are not read at all
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testMalformedDatesDoNotFailTheDataset() throws IOException {
+        String json = "[{\"id\":1,\"admissionDate\":\"2023-02-29T10:00:00\",\"dischargeDate\":\"soon\",\"patientID\":2}]";
+
+        List<Admission> admissions = HospitalJson.parseAdmissions(json);
+        List<Allocation> allocations = HospitalJson.parseAllocations("[{\"id\":1,\"admissionID\":1,\"employeeID\":4,\"startTime\":\"never\",\"endTime\":7}]");
+
+        assertEquals(HospitalJson.MISSING_TIME, admissions.get(0).admissionDate());
+        assertEquals("2023-02-29T10:00:00", admissions.get(0).admissionDateText());
+        assertFalse(admissions.get(0).isCurrentlyAdmitted());
+        assertEquals(json, HospitalJson.writeArray(admissions, HospitalJson::writeAdmission));
+        assertEquals(List.of(new Allocation(1, 1, 4)), allocations);
+    }
+
+    // Edge case - employee fields beyond id, surname and forename are passed through as the upstream sent them
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testEmployeesAreWrittenAsReceived() throws IOException {
+        String json = "[{\"id\":4,\"surname\":\"Jones\",\"forename\":\"Sarah\",\"role\":{\"title\":\"Nurse\",\"grades\":[5,6]}},"
+                + "{\"id\":5,\"surname\":\"Wicks\",\"forename\":\"Patrick\"}]";
+
+        List<Employee> employees = HospitalJson.parseEmployees(json);
+
+        assertEquals(json, HospitalJson.writeArray(employees, HospitalJson::writeEmployee));
+        assertEquals("{\"id\":5,\"surname\":\"Wicks\",\"forename\":\"Patrick\",\"extension\":1234}",
+                HospitalJson.writeObject(HospitalJson.parseEmployee("{\"id\":5,\"surname\":\"Wicks\",\"forename\":\"Patrick\",\"extension\":1234}"), HospitalJson::writeEmployee));
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testTimeRoundTrip() {
+        for (String time : List.of("0001-01-01T00:00:00", "2020-02-29T23:59:59", "2024-04-19T21:50:00", "9999-12-31T23:59:59")) {
+            assertEquals(time, HospitalJson.formatTime(HospitalJson.parseTime(time)));
+        }
+    }
+
+    // Edge case - dates in another form than yyyy-MM-ddTHH:mm:ss are compared to the second but written back unchanged
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testUnusualDatesAreWrittenAsReceived() throws IOException {
+        String json = "[{\"id\":6,\"admissionDate\":\"2024-04-19T21:50:00.000\",\"dischargeDate\":\"2024-04-20T09:00:00+01:00\",\"patientID\":5},"
+                + "{\"id\":7,\"admissionDate\":\"2024-04-21T10:00:00\",\"dischargeDate\":\"0001-01-01T00:00:00\",\"patientID\":5}]";
+
+        List<Admission> admissions = HospitalJson.parseAdmissions(json);
+        AdmissionColumns columns = HospitalJson.parseAdmissionColumns(json);
+
+        assertEquals(HospitalJson.parseTime("2024-04-19T21:50:00"), admissions.get(0).admissionDate());
+        assertEquals(HospitalJson.parseTime("2024-04-20T08:00:00"), admissions.get(0).dischargeDate());
+        assertNull(admissions.get(1).admissionDateText());
+        assertEquals(json, HospitalJson.writeArray(admissions, HospitalJson::writeAdmission));
+        assertEquals(admissions, List.of(columns.get(0), columns.get(1)));
+        assertEquals("[{\"admissionId\":6,\"admissionDate\":\"2024-04-19T21:50:00.000\",\"dischargeDate\":\"2024-04-20T09:00:00+01:00\"}]",
+                HospitalJson.writeArray(List.of(columns.get(0)), HospitalJson::writePatientAdmission));
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testWriteRows() throws IOException {
+        Admission admission = new Admission(6, HospitalJson.parseTime("2024-04-19T21:50:00"), Admission.NOT_DISCHARGED, 5);
+
+        assertEquals("[{\"admissionId\":6,\"admissionDate\":\"2024-04-19T21:50:00\",\"dischargeDate\":\"0001-01-01T00:00:00\"}]",
+                HospitalJson.writeArray(List.of(admission), HospitalJson::writePatientAdmission));
+        assertEquals("[{\"patientID\":6,\"admissionDate\":\"2024-04-19T21:50:00\"}]",
+                HospitalJson.writeArray(List.of(admission), HospitalJson::writeCurrentAdmission));
+        assertEquals("[{\"id\":4,\"surname\":\"Jones\",\"forename\":\"Sarah\"}]",
+                HospitalJson.writeArray(List.of(new Employee(4, "Jones", "Sarah")), HospitalJson::writeEmployee));
+        assertEquals("[{\"id\":6,\"admissionDate\":\"2024-04-19T21:50:00\",\"dischargeDate\":\"0001-01-01T00:00:00\",\"patientID\":5}]",
+                HospitalJson.writeArray(List.of(admission), HospitalJson::writeAdmission));
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testWriteAdmissionsByPatient() throws IOException {
+        Map<String, String> admissionsByPatient = new LinkedHashMap<>();
+        admissionsByPatient.put("5", "[{\"admissionId\":6}]");
+        admissionsByPatient.put("3", null);
+
+        assertEquals("{\"5\":[{\"admissionId\":6}],\"3\":null}", HospitalJson.writeAdmissionsByPatient(admissionsByPatient));
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.webserviceapi;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+
+// Open-loop load generator: requests go out at a fixed rate whether or not earlier ones have completed, and each
+// latency is measured from when the request was due, so a stalled server cannot hide its queueing delay.
+public class LoadGenerator {
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "load-generator");
+                thread.setDaemon(true);
+                return thread;
+            }))
+            .build();
+
+    private final String baseUrl;
+
+    public LoadGenerator(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+    }
+
+    // Cycles through the paths at requestsPerSecond for the given duration, then waits for the stragglers
+    public LoadReport run(List<String> paths, int requestsPerSecond, Duration duration) throws InterruptedException {
+        LoadReport report = new LoadReport();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long totalRequests = duration.toNanos() / intervalNanos;
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+
+        long startNanos = System.nanoTime();
+        for (long i = 0; i < totalRequests; i++) {
+            long dueNanos = startNanos + i * intervalNanos;
+            long waitNanos = dueNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+
+            String path = paths.get((int) (i % paths.size()));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+
+            inFlight.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> report.record(path, System.nanoTime() - dueNanos,
+                            failure == null ? response.statusCode() : -1)));
+        }
+
+        try {
+            CompletableFuture.allOf(inFlight.toArray(new CompletableFuture<?>[0])).get(60, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // Failed requests are already counted as errors; unfinished ones are simply left out of the report
+        }
+        return report;
+    }
+
+    // Latencies and error counts per path. Any 5xx status, or no response at all, counts as an error.
+    public static class LoadReport {
+
+        private final Map<String, List<Long>> latencies = new ConcurrentHashMap<>();
+        private final Map<String, Integer> errors = new ConcurrentHashMap<>();
+
+        void record(String path, long latencyNanos, int status) {
+            latencies.computeIfAbsent(path, key -> Collections.synchronizedList(new ArrayList<>())).add(latencyNanos);
+            if (status < 0 || status >= 500) {
+                errors.merge(path, 1, Integer::sum);
+            }
+        }
+
+        public Set<String> paths() {
+            return new TreeSet<>(latencies.keySet());
+        }
+
+        public int requests(String path) {
+            return latencies.getOrDefault(path, List.of()).size();
+        }
+
+        public int errors(String path) {
+            return errors.getOrDefault(path, 0);
+        }
+
+        public int totalErrors() {
+            return errors.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        // Latency at the given percentile (0-100) for the path, by the nearest-rank method
+        public Duration percentile(String path, double percentile) {
+            List<Long> recorded = latencies.get(path);
+            if (recorded == null || recorded.isEmpty()) {
+                return Duration.ZERO;
+            }
+
+            List<Long> sorted;
+            synchronized (recorded) {
+                sorted = new ArrayList<>(recorded);
+            }
+            Collections.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100 * sorted.size());
+            return Duration.ofNanos(sorted.get(Math.max(0, rank - 1)));
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder summary = new StringBuilder(String.format("%-40s %8s %7s %9s %9s %9s%n", "path", "requests", "errors", "p50 ms", "p95 ms", "p99 ms"));
+            for (String path : paths()) {
+                summary.append(String.format("%-40s %8d %7d %9.1f %9.1f %9.1f%n", path, requests(path), errors(path),
+                        percentile(path, 50).toNanos() / 1e6, percentile(path, 95).toNanos() / 1e6, percentile(path, 99).toNanos() / 1e6));
+            }
+            return summary.toString();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.webserviceapi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatientAdmissionsIndexUnitTests {
+
+    @Tag("unitTest")
+    @Test
+    void testLookupReturnsFormattedAdmissionsInUpstreamOrder() throws Exception {
+        PatientAdmissionsIndex index = PatientAdmissionsIndex.build(List.of(
+                admission(7, "2024-01-01T10:00:00", "2024-01-02T10:00:00", 3),
+                admission(8, "2024-02-01T10:00:00", "0001-01-01T00:00:00", 4),
+                admission(9, "2024-03-01T10:00:00", "0001-01-01T00:00:00", 3)));
+
+        assertEquals("[{\"admissionId\":7,\"admissionDate\":\"2024-01-01T10:00:00\",\"dischargeDate\":\"2024-01-02T10:00:00\"},"
+                + "{\"admissionId\":9,\"admissionDate\":\"2024-03-01T10:00:00\",\"dischargeDate\":\"0001-01-01T00:00:00\"}]", index.lookup("3"));
+        assertEquals(2, index.patientCount());
+    }
+
+    // Edge case - only the canonical form of a patient ID matches, as with the upstream string comparison
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testNonCanonicalPatientIDsDoNotMatch() throws Exception {
+        PatientAdmissionsIndex index = PatientAdmissionsIndex.build(List.of(
+                admission(1, "2024-01-01T10:00:00", "2024-01-02T10:00:00", 5)));
+
+        assertNotNull(index.lookup("5"));
+        assertNull(index.lookup("05"));
+        assertNull(index.lookup("+5"));
+        assertNull(index.lookup("5.0"));
+        assertNull(index.lookup(""));
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testLookupAcrossManyPatients() throws Exception {
+        List<Admission> admissions = new ArrayList<>();
+        for (int patientID = 1; patientID <= 10000; patientID++) {
+            admissions.add(admission(patientID, "2024-01-01T10:00:00", "0001-01-01T00:00:00", patientID));
+        }
+
+        PatientAdmissionsIndex index = PatientAdmissionsIndex.build(admissions);
+
+        assertEquals(10000, index.patientCount());
+        assertEquals("[{\"admissionId\":9999,\"admissionDate\":\"2024-01-01T10:00:00\",\"dischargeDate\":\"0001-01-01T00:00:00\"}]", index.lookup("9999"));
+        assertNull(index.lookup("10001"));
+    }
+
+    private static Admission admission(int id, String admissionDate, String dischargeDate, int patientID) {
+        return new Admission(id, HospitalJson.parseTime(admissionDate), HospitalJson.parseTime(dischargeDate), patientID);
+    }
+}
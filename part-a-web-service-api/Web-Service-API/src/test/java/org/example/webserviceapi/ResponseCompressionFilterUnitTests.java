@@ -0,0 +1,30 @@
+package org.example.webserviceapi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCompressionFilterUnitTests {
+
+    @Tag("unitTest")
+    @Test
+    void testAcceptEncodingWithGzip() {
+        assertTrue(ResponseCompressionFilter.acceptsGzip("gzip"));
+        assertTrue(ResponseCompressionFilter.acceptsGzip("gzip, deflate, br"));
+        assertTrue(ResponseCompressionFilter.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+        assertTrue(ResponseCompressionFilter.acceptsGzip("*"));
+    }
+
+    // Edge case - q=0 refuses a coding outright
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testAcceptEncodingRefusingGzip() {
+        assertFalse(ResponseCompressionFilter.acceptsGzip(null));
+        assertFalse(ResponseCompressionFilter.acceptsGzip("identity"));
+        assertFalse(ResponseCompressionFilter.acceptsGzip("deflate, br"));
+        assertFalse(ResponseCompressionFilter.acceptsGzip("gzip;q=0"));
+        assertFalse(ResponseCompressionFilter.acceptsGzip("gzip; q=0.000, identity"));
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.webserviceapi;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestTemplateConfigUnitTests {
+
+    private final WebServiceApiApplication.RestTemplateConfig config = new WebServiceApiApplication.RestTemplateConfig();
+
+    @Tag("unitTest")
+    @Test
+    void testPooledClientPublishesPoolMetrics() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        ClientHttpRequestFactory requestFactory = config.upstreamRequestFactory(meterRegistry, 20, 50, 2000, 10000, 2000, 60, false);
+
+        assertInstanceOf(HttpComponentsClientHttpRequestFactory.class, requestFactory);
+        assertEquals(50.0, meterRegistry.get("httpcomponents.httpclient.pool.total.max").tag("httpclient", "upstream").gauge().value());
+        assertEquals(20.0, meterRegistry.get("httpcomponents.httpclient.pool.route.max.default").tag("httpclient", "upstream").gauge().value());
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testHttp2UsesJdkClient() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        ClientHttpRequestFactory requestFactory = config.upstreamRequestFactory(meterRegistry, 20, 50, 2000, 10000, 2000, 60, true);
+
+        // The JDK client is wrapped to count requests in flight and to ask for and decode gzip
+        assertInstanceOf(InterceptingClientHttpRequestFactory.class, requestFactory);
+        assertEquals(0.0, meterRegistry.get("hospital.upstream.requests.active").tag("httpclient", "upstream").gauge().value());
+    }
+}
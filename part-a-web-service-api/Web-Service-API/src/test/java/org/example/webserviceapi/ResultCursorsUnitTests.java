@@ -0,0 +1,82 @@
+package org.example.webserviceapi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCursorsUnitTests {
+
+    @Tag("unitTest")
+    @Test
+    void testCursorRoundTrip() {
+        ResultCursors resultCursors = new ResultCursors(4);
+
+        String cursor = resultCursors.cursor("F2", "17", 50);
+        ResultCursors.Position position = resultCursors.decode("F2", cursor);
+
+        assertEquals("17", position.versions());
+        assertEquals(50, position.offset());
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"), "Cursors need no escaping in a query string");
+    }
+
+    // Pages after the first keep reading the result pinned for their versions, whatever has been pinned since
+    @Tag("unitTest")
+    @Test
+    void testPinnedResultStaysForItsVersions() {
+        ResultCursors resultCursors = new ResultCursors(4);
+        List<String> first = List.of("a", "b", "c");
+
+        assertSame(first, resultCursors.pin("F4", "3-4", first));
+        resultCursors.pin("F4", "5-4", List.of("a", "c"));
+
+        assertSame(first, resultCursors.pinned("F4", "3-4"));
+        assertNull(resultCursors.pinned("F2", "3-4"));
+    }
+
+    // Edge case - a second request on the same versions shares the result pinned by the first
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testPinKeepsTheExistingResult() {
+        ResultCursors resultCursors = new ResultCursors(4);
+        List<String> first = List.of("a", "b");
+
+        resultCursors.pin("F2", "9", first);
+
+        assertSame(first, resultCursors.pin("F2", "9", List.of("a", "b")));
+        assertEquals(1, resultCursors.size());
+    }
+
+    // Boundary case - past the limit, the result least recently paged through is dropped
+    @Tag("unitTest")
+    @Tag("boundaryCase")
+    @Test
+    void testLeastRecentlyUsedResultIsDropped() {
+        ResultCursors resultCursors = new ResultCursors(2);
+        resultCursors.pin("F2", "1", List.of("a"));
+        resultCursors.pin("F2", "2", List.of("b"));
+        resultCursors.pinned("F2", "1");
+        resultCursors.pin("F2", "3", List.of("c"));
+
+        assertEquals(2, resultCursors.size());
+        assertNotNull(resultCursors.pinned("F2", "1"));
+        assertNull(resultCursors.pinned("F2", "2"));
+    }
+
+    // Corner case - cursors that are malformed, for another endpoint or from another process are rejected
+    @Tag("unitTest")
+    @Tag("cornerCase")
+    @Test
+    void testForeignCursorsAreRejected() {
+        ResultCursors resultCursors = new ResultCursors(4);
+        String cursor = resultCursors.cursor("F2", "17", 50);
+
+        assertThrows(IllegalArgumentException.class, () -> resultCursors.decode("F4", cursor));
+        assertThrows(IllegalArgumentException.class, () -> new ResultCursors(4).decode("F2", cursor));
+        assertThrows(IllegalArgumentException.class, () -> resultCursors.decode("F2", "not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> resultCursors.decode("F2", resultCursors.cursor("F2", "17", -1)));
+    }
+}
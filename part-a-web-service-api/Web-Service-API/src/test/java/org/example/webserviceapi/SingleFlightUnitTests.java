@@ -0,0 +1,191 @@
+package org.example.webserviceapi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightUnitTests {
+
+    @Tag("unitTest")
+    @Test
+    void testConcurrentCallersShareOneCall() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger joined = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("Admissions", () -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return "[1]";
+                }, joined::incrementAndGet)));
+            }
+
+            // Hold the call open until every other caller has joined it
+            while (joined.get() < 7) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("[1]", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(0, singleFlight.size());
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testSequentialCallersEachMakeTheirOwnCall() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals(Integer.valueOf(1), singleFlight.execute("Admissions", calls::incrementAndGet, () -> fail("nothing to join")));
+        assertEquals(Integer.valueOf(2), singleFlight.execute("Admissions", calls::incrementAndGet, () -> fail("nothing to join")));
+    }
+
+    // Edge case - a failed call fails every caller sharing it, and the next call is made afresh
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testFailureIsSharedByWaiters() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CountDownLatch joined = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("Admissions", () -> {
+                await(joined);
+                throw new IllegalStateException("Upstream unavailable");
+            }, () -> fail("the first caller leads")));
+
+            while (singleFlight.size() == 0) {
+                Thread.sleep(1);
+            }
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> singleFlight.execute("Admissions", () -> "[1]", joined::countDown));
+            assertEquals("Upstream unavailable", e.getMessage());
+            assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals("[2]", singleFlight.execute("Admissions", () -> "[2]", () -> fail("nothing to join")));
+    }
+
+    // Corner case - interrupting the first caller, as a request deadline does, leaves the call running for the others
+    @Tag("unitTest")
+    @Tag("cornerCase")
+    @Test
+    void testInterruptedFirstCallerDoesNotFailTheOthers() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CountDownLatch joined = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> singleFlight.execute("Admissions", () -> {
+                await(release);
+                return "[1]";
+            }, () -> fail("the first caller leads")));
+            while (singleFlight.size() == 0) {
+                Thread.sleep(1);
+            }
+            Future<String> second = executor.submit(() -> singleFlight.execute("Admissions", () -> "[2]", joined::countDown));
+            await(joined);
+
+            first.cancel(true);
+            release.countDown();
+
+            assertEquals("[1]", second.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, singleFlight.size());
+    }
+
+    // Edge case - a call whose only caller stopped waiting before a thread was free to make it is never made
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testCallAbandonedBeforeItStartsIsNotMade() throws Exception {
+        ExecutorService callExecutor = Executors.newSingleThreadExecutor();
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        try {
+            SingleFlight<String, String> singleFlight = new SingleFlight<>(callExecutor);
+            AtomicInteger calls = new AtomicInteger();
+            CountDownLatch release = new CountDownLatch(1);
+            callExecutor.execute(() -> await(release));
+
+            Future<String> caller = callers.submit(() -> singleFlight.execute("Admissions", () -> {
+                calls.incrementAndGet();
+                return "[1]";
+            }, () -> fail("the first caller leads")));
+            while (singleFlight.size() == 0) {
+                Thread.sleep(1);
+            }
+            caller.cancel(true);
+            // Once the caller's thread is free again it has stopped waiting
+            callers.submit(() -> { }).get(5, TimeUnit.SECONDS);
+            release.countDown();
+
+            while (singleFlight.size() > 0) {
+                Thread.sleep(1);
+            }
+            assertEquals(0, calls.get());
+            assertEquals("[2]", singleFlight.execute("Admissions", () -> "[2]", () -> fail("nothing to join")));
+        } finally {
+            callExecutor.shutdownNow();
+            callers.shutdownNow();
+        }
+    }
+
+    // Corner case - a call made from within another runs on its thread, so one thread is enough for both
+    @Tag("unitTest")
+    @Tag("cornerCase")
+    @Test
+    void testNestedCallRunsOnTheOuterCallsThread() {
+        ExecutorService callExecutor = Executors.newSingleThreadExecutor();
+        try {
+            SingleFlight<String, String> downloads = new SingleFlight<>(callExecutor);
+            SingleFlight<String, String> snapshots = new SingleFlight<>(callExecutor);
+
+            String threads = snapshots.execute("Admissions", () -> {
+                String outer = Thread.currentThread().getName();
+                return outer + " " + downloads.execute("Admissions", () -> Thread.currentThread().getName(), () -> fail("nothing to join"));
+            }, () -> fail("nothing to join"));
+
+            String[] names = threads.split(" ");
+            assertEquals(names[0], names[1]);
+        } finally {
+            callExecutor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.webserviceapi;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotFileUnitTests {
+
+    private final Path directory = createTempDirectory();
+
+    private final Path path = directory.resolve("upstream-snapshots.bin");
+
+    @AfterEach
+    void deleteFiles() throws IOException {
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(directory);
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testSnapshotsSurviveARoundTrip() throws IOException {
+        List<SnapshotFile.Entry> entries = List.of(
+                new SnapshotFile.Entry("Admissions", 1_700_000_000_000L, "[{\"id\":1,\"patientID\":2}]"),
+                new SnapshotFile.Entry("Employees", 1_700_000_000_500L, "[{\"id\":1,\"surname\":\"M\u00fcller\",\"forename\":\"Zo\u00eb\"}]"));
+
+        new SnapshotFile(path).write(entries);
+
+        assertEquals(entries, new SnapshotFile(path).load());
+    }
+
+    // Data found unchanged by the upstream is saved as fetched now, so a restart does not take it for the old fetch
+    @Tag("unitTest")
+    @Test
+    void testRevalidatedSnapshotIsSavedAsFetchedNow() throws Exception {
+        String body = "[{\"id\":1}]";
+        new SnapshotFile(path).write(List.of(new SnapshotFile.Entry("Admissions", 0, body)));
+        SnapshotFile file = new SnapshotFile(path);
+        file.load();
+        long before = System.currentTimeMillis();
+
+        file.revalidatedLater(new UpstreamSnapshotCache.Snapshot("Admissions", body, 1, System.nanoTime()));
+
+        long fetchedAt = 0;
+        for (int i = 0; i < 100 && fetchedAt < before; i++) {
+            Thread.sleep(20);
+            List<SnapshotFile.Entry> saved = new SnapshotFile(path).load();
+            fetchedAt = saved.isEmpty() ? 0 : saved.get(0).fetchedAtEpochMillis();
+        }
+        assertTrue(fetchedAt >= before, "The saved time should have moved up to the revalidation");
+    }
+
+    // Edge case - no file yet, as on the very first start
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testMissingFileLoadsNothing() {
+        assertEquals(List.of(), new SnapshotFile(path).load());
+    }
+
+    // Edge case - a single flipped bit anywhere fails the checksum, and the whole file is ignored
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testCorruptFileIsIgnored() throws IOException {
+        new SnapshotFile(path).write(List.of(new SnapshotFile.Entry("Admissions", 0, "[{\"id\":1}]")));
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 0x10;
+        Files.write(path, bytes);
+
+        assertEquals(List.of(), new SnapshotFile(path).load());
+    }
+
+    // Edge case - a file cut short by a crash or a full disk is ignored
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testTruncatedFileIsIgnored() throws IOException {
+        new SnapshotFile(path).write(List.of(new SnapshotFile.Entry("Admissions", 0, "[{\"id\":1}]")));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 6));
+
+        assertEquals(List.of(), new SnapshotFile(path).load());
+    }
+
+    // Corner case - a file from another format version is ignored even though its checksum matches
+    @Tag("unitTest")
+    @Tag("cornerCase")
+    @Test
+    void testOtherFormatVersionIsIgnored() {
+        ByteBuffer file = ByteBuffer.allocate(16);
+        file.putInt(SnapshotFile.MAGIC).putInt(SnapshotFile.FORMAT_VERSION + 1).putInt(0);
+        CRC32C crc = new CRC32C();
+        crc.update(file.array(), 0, 12);
+        file.putInt((int) crc.getValue()).flip();
+
+        assertEquals(List.of(), SnapshotFile.decode(file));
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("snapshot-file");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
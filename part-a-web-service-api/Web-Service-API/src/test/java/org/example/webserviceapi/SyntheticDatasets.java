@@ -0,0 +1,121 @@
+package org.example.webserviceapi;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+import java.util.Random;
+
+
+// Upstream datasets of a given size for the benchmarks and the upstream simulator, shaped like the real API's responses.
+// There is one patient per four admissions, one employee per hundred allocations and one admission in twenty still open.
+// One employee in fifty has no forename in the bulk list, so F3 and F4 sometimes need Employees/{id}.
+public class SyntheticDatasets {
+
+    private static final String[] SURNAMES = {"Finley", "Jackson", "Allen", "Jones", "Wicks", "Smith"};
+    private static final String[] FORENAMES = {"Sarah", "Robert", "Alice", "Patrick"};
+
+    private final String admissions;
+    private final String allocations;
+    private final String employees;
+    private final String[] employeeRecords;
+    private final int patientCount;
+
+    public SyntheticDatasets(int rows) {
+        Random random = new Random(rows);
+        long start = HospitalJson.parseTime("2020-01-01T00:00:00");
+
+        patientCount = Math.max(1, rows / 4);
+        int employeeCount = Math.max(10, rows / 100);
+
+        StringBuilder json = new StringBuilder(rows * 100).append('[');
+        for (int id = 1; id <= rows; id++) {
+            long admissionDate = start + random.nextInt(4 * 365 * 86400);
+            long dischargeDate = random.nextInt(20) == 0 ? Admission.NOT_DISCHARGED : admissionDate + random.nextInt(30 * 86400);
+            json.append(id > 1 ? "," : "")
+                    .append("{\"id\":").append(id)
+                    .append(",\"admissionDate\":\"").append(HospitalJson.formatTime(admissionDate))
+                    .append("\",\"dischargeDate\":\"").append(HospitalJson.formatTime(dischargeDate))
+                    .append("\",\"patientID\":").append(1 + random.nextInt(patientCount)).append('}');
+        }
+        admissions = json.append(']').toString();
+
+        json.setLength(0);
+        json.append('[');
+        for (int id = 1; id <= rows; id++) {
+            long startTime = start + random.nextInt(4 * 365 * 86400);
+            json.append(id > 1 ? "," : "")
+                    .append("{\"id\":").append(id)
+                    .append(",\"admissionID\":").append(1 + random.nextInt(rows))
+                    // Employees in the top tenth of IDs are never allocated, so F4 has rows to return
+                    .append(",\"employeeID\":").append(1 + random.nextInt(employeeCount - employeeCount / 10))
+                    .append(",\"startTime\":\"").append(HospitalJson.formatTime(startTime))
+                    .append("\",\"endTime\":\"").append(HospitalJson.formatTime(startTime + random.nextInt(86400))).append("\"}");
+        }
+        allocations = json.append(']').toString();
+
+        employeeRecords = new String[employeeCount + 1];
+        json.setLength(0);
+        json.append('[');
+        for (int id = 1; id <= employeeCount; id++) {
+            String surname = SURNAMES[random.nextInt(SURNAMES.length)];
+            String forename = FORENAMES[random.nextInt(FORENAMES.length)];
+            employeeRecords[id] = "{\"id\":" + id + ",\"surname\":\"" + surname + "\",\"forename\":\"" + forename + "\"}";
+
+            json.append(id > 1 ? "," : "");
+            if (random.nextInt(50) == 0) {
+                json.append("{\"id\":").append(id).append(",\"surname\":\"").append(surname).append("\"}");
+            } else {
+                json.append(employeeRecords[id]);
+            }
+        }
+        employees = json.append(']').toString();
+    }
+
+    public String admissions() {
+        return admissions;
+    }
+
+    public String allocations() {
+        return allocations;
+    }
+
+    public String employees() {
+        return employees;
+    }
+
+    // The Employees/{id} record, or null for an unknown employee
+    public String employee(int id) {
+        return id > 0 && id < employeeRecords.length ? employeeRecords[id] : null;
+    }
+
+    public int employeeCount() {
+        return employeeRecords.length - 1;
+    }
+
+    public int patientCount() {
+        return patientCount;
+    }
+
+    // A RestTemplate answering from memory, so the benchmarks measure the controller and not the network
+    public RestTemplate restTemplate() {
+        Map<String, String> bodies = Map.of(
+                "Admissions", admissions,
+                "Allocations", allocations,
+                "Employees", employees);
+
+        return new RestTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> ResponseEntity<T> getForEntity(String url, Class<T> responseType, Object... uriVariables) {
+                String body = url.contains("/Employees/")
+                        ? employee(Integer.parseInt(url.substring(url.lastIndexOf('/') + 1)))
+                        : bodies.get(url.substring(url.lastIndexOf('/') + 1));
+                return body != null
+                        ? new ResponseEntity<>((T) body, HttpStatus.OK)
+                        : new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.webserviceapi;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+// Local stand-in for the Plymouth API serving Admissions, Allocations, Employees and Employees/{id} from
+// SyntheticDatasets, with a configurable response latency, jitter and error rate. Point the service at baseUrl().
+public class UpstreamSimulator implements AutoCloseable {
+
+    private final SyntheticDatasets datasets;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "upstream-simulator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+
+    private volatile Duration latency = Duration.ZERO;
+    private volatile Duration jitter = Duration.ZERO;
+    private volatile double errorRate;
+
+    public UpstreamSimulator(SyntheticDatasets datasets) throws IOException {
+        this.datasets = datasets;
+
+        // Without TCP_NODELAY the separate header and body writes can stall ~40 ms on delayed ACKs and swamp the simulated latency
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    // Every response waits latency plus a uniformly random extra of up to jitter
+    public UpstreamSimulator latency(Duration latency, Duration jitter) {
+        this.latency = latency;
+        this.jitter = jitter;
+        return this;
+    }
+
+    // Fraction of requests, from 0 to 1, answered with 500 Internal Server Error
+    public UpstreamSimulator errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    public int errors() {
+        return errors.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try (exchange) {
+            long delayMillis = latency.toMillis() + (jitter.isZero() ? 0 : ThreadLocalRandom.current().nextLong(jitter.toMillis() + 1));
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                errors.incrementAndGet();
+                respond(exchange, 500, "Simulated upstream error");
+                return;
+            }
+
+            String body = bodyFor(exchange.getRequestURI().getPath());
+            if (body == null) {
+                respond(exchange, 404, "");
+            } else {
+                respond(exchange, 200, body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String bodyFor(String path) {
+        switch (path) {
+            case "/Admissions":
+                return datasets.admissions();
+            case "/Allocations":
+                return datasets.allocations();
+            case "/Employees":
+                return datasets.employees();
+            default:
+                if (path.startsWith("/Employees/")) {
+                    try {
+                        return datasets.employee(Integer.parseInt(path.substring("/Employees/".length())));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                }
+                return null;
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(bytes);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,246 @@
+package org.example.webserviceapi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamSnapshotCacheUnitTests {
+
+    @Tag("unitTest")
+    @Test
+    void testFreshSnapshotIsServedFromCache() {
+        AtomicInteger downloads = new AtomicInteger();
+        UpstreamSnapshotCache cache = new UpstreamSnapshotCache(dataset -> {
+            downloads.incrementAndGet();
+            return new ResponseEntity<>("[]", HttpStatus.OK);
+        }, Runnable::run);
+
+        UpstreamSnapshotCache.Snapshot first = cache.get("Admissions");
+        UpstreamSnapshotCache.Snapshot second = cache.get("Admissions");
+
+        assertEquals(1, downloads.get());
+        assertSame(first, second);
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testStaleSnapshotIsServedWhileRefreshing() {
+        AtomicInteger downloads = new AtomicInteger();
+        List<Runnable> pendingRefreshes = new ArrayList<>();
+        UpstreamSnapshotCache cache = new UpstreamSnapshotCache(dataset ->
+                new ResponseEntity<>("[" + downloads.incrementAndGet() + "]", HttpStatus.OK), pendingRefreshes::add);
+        cache.setTtl(Duration.ZERO);
+
+        assertEquals("[1]", cache.get("Admissions").body());
+
+        // Past the TTL the old snapshot is returned straight away and only one refresh is queued
+        assertEquals("[1]", cache.get("Admissions").body());
+        assertEquals("[1]", cache.get("Admissions").body());
+        assertEquals(1, pendingRefreshes.size());
+        assertEquals(1, downloads.get());
+
+        pendingRefreshes.get(0).run();
+
+        assertEquals("[2]", cache.get("Admissions").body());
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testSnapshotPastMaxStaleIsReloaded() {
+        AtomicInteger downloads = new AtomicInteger();
+        UpstreamSnapshotCache cache = new UpstreamSnapshotCache(dataset ->
+                new ResponseEntity<>("[" + downloads.incrementAndGet() + "]", HttpStatus.OK), Runnable::run);
+        cache.setTtl(Duration.ZERO);
+        cache.setMaxStale(Duration.ZERO);
+
+        assertEquals("[1]", cache.get("Admissions").body());
+        assertEquals("[2]", cache.get("Admissions").body());
+    }
+
+    // Edge case - an empty upstream response must not be cached
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testEmptyResponseIsNotCached() {
+        AtomicInteger downloads = new AtomicInteger();
+        UpstreamSnapshotCache cache = new UpstreamSnapshotCache(dataset -> {
+            downloads.incrementAndGet();
+            return new ResponseEntity<>("", HttpStatus.OK);
+        }, Runnable::run);
+
+        assertNull(cache.get("Admissions"));
+        assertNull(cache.get("Admissions"));
+        assertEquals(2, downloads.get());
+    }
+
+    // Edge case - a failed background refresh keeps the stale snapshot
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testFailedRefreshKeepsStaleSnapshot() {
+        AtomicInteger downloads = new AtomicInteger();
+        UpstreamSnapshotCache cache = new UpstreamSnapshotCache(dataset -> {
+            if (downloads.incrementAndGet() > 1) {
+                throw new IllegalStateException("Upstream unavailable");
+            }
+            return new ResponseEntity<>("[1]", HttpStatus.OK);
+        }, Runnable::run);
+        cache.setTtl(Duration.ZERO);
+
+        assertEquals("[1]", cache.get("Admissions").body());
+        assertEquals("[1]", cache.get("Admissions").body());
+        assertEquals("[1]", cache.get("Admissions").body());
+
+        Map<String, Object> stats = cache.getStats().get(0);
+        assertEquals("Admissions", stats.get("dataset"));
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(2L, stats.get("staleHits"));
+        assertEquals(2L, stats.get("refreshFailures"));
+        assertEquals(0L, stats.get("refreshes"));
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testListenersSeeEachNewSnapshotOnce() {
+        List<UpstreamSnapshotCache.Snapshot> notified = new ArrayList<>();
+        UpstreamSnapshotCache cache = new UpstreamSnapshotCache(dataset -> new ResponseEntity<>("[]", HttpStatus.OK), Runnable::run);
+        cache.addListener(notified::add);
+        cache.addListener(snapshot -> {
+            throw new IllegalStateException("listener failure");
+        });
+
+        UpstreamSnapshotCache.Snapshot snapshot = cache.get("Admissions");
+        cache.get("Admissions");
+
+        assertEquals(List.of(snapshot), notified);
+    }
+
+    // Edge case - downloading the same body again keeps the snapshot and its version, so ETags stay valid
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testUnchangedDownloadKeepsSnapshotVersion() {
+        AtomicInteger downloads = new AtomicInteger();
+        List<UpstreamSnapshotCache.Snapshot> notified = new ArrayList<>();
+        UpstreamSnapshotCache cache = new UpstreamSnapshotCache(dataset ->
+                new ResponseEntity<>(downloads.incrementAndGet() < 3 ? "[1]" : "[2]", HttpStatus.OK), Runnable::run);
+        cache.addListener(notified::add);
+        cache.setTtl(Duration.ZERO);
+        cache.setMaxStale(Duration.ZERO);
+
+        UpstreamSnapshotCache.Snapshot first = cache.get("Admissions");
+        UpstreamSnapshotCache.Snapshot second = cache.get("Admissions");
+        UpstreamSnapshotCache.Snapshot third = cache.get("Admissions");
+
+        assertSame(first, second);
+        assertNotEquals(first.version(), third.version());
+        assertEquals("[2]", third.body());
+        assertEquals(List.of(first, third), notified);
+        assertEquals(1L, cache.getStats().get(0).get("unchanged"));
+    }
+
+    // Corner case - a burst of requests for a dataset not cached yet shares one download
+    @Tag("unitTest")
+    @Tag("cornerCase")
+    @Test
+    void testConcurrentMissesShareOneDownload() throws Exception {
+        AtomicInteger downloads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        UpstreamSnapshotCache cache = new UpstreamSnapshotCache(dataset -> {
+            downloads.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new ResponseEntity<>("[1]", HttpStatus.OK);
+        }, Runnable::run);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<UpstreamSnapshotCache.Snapshot>> requests = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                requests.add(executor.submit(() -> cache.get("Admissions")));
+            }
+            while ((long) cache.getStats().get(0).get("coalesced") < 3) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            UpstreamSnapshotCache.Snapshot snapshot = requests.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<UpstreamSnapshotCache.Snapshot> request : requests) {
+                assertSame(snapshot, request.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, downloads.get());
+        assertEquals(0L, cache.getStats().get(0).get("unchanged"));
+    }
+
+    // A snapshot saved by an earlier run is served straight away, then replaced by a refresh
+    @Tag("unitTest")
+    @Test
+    void testRestoredSnapshotIsServedWhileRefreshing() {
+        AtomicInteger downloads = new AtomicInteger();
+        List<Runnable> pendingRefreshes = new ArrayList<>();
+        UpstreamSnapshotCache cache = new UpstreamSnapshotCache(dataset ->
+                new ResponseEntity<>("[" + downloads.incrementAndGet() + "]", HttpStatus.OK), pendingRefreshes::add);
+
+        assertTrue(cache.restore("Admissions", "[0]", Duration.ofMinutes(1)));
+        cache.refresh("Admissions");
+
+        assertEquals("[0]", cache.get("Admissions").body());
+        assertEquals(0, downloads.get());
+
+        pendingRefreshes.get(0).run();
+
+        assertEquals("[1]", cache.get("Admissions").body());
+        assertEquals(1L, cache.getStats().get(0).get("restored"));
+    }
+
+    // Edge case - a restored snapshot never replaces one already downloaded
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testRestoreDoesNotReplaceADownloadedSnapshot() {
+        UpstreamSnapshotCache cache = new UpstreamSnapshotCache(dataset -> new ResponseEntity<>("[1]", HttpStatus.OK), Runnable::run);
+
+        cache.get("Admissions");
+
+        assertFalse(cache.restore("Admissions", "[0]", Duration.ZERO));
+        assertFalse(cache.restore("Employees", "", Duration.ZERO));
+        assertEquals("[1]", cache.get("Admissions").body());
+    }
+
+    // Boundary case - a saved snapshot keeps its real age: one fetched within the TTL is fresh, one as old as max-stale
+    // is not restored at all
+    @Tag("unitTest")
+    @Tag("boundaryCase")
+    @Test
+    void testRestoredSnapshotKeepsItsAge() {
+        UpstreamSnapshotCache cache = new UpstreamSnapshotCache(dataset -> new ResponseEntity<>("[1]", HttpStatus.OK), Runnable::run);
+
+        assertTrue(cache.restore("Admissions", "[0]", Duration.ofSeconds(1)));
+        assertFalse(cache.restore("Employees", "[0]", UpstreamSnapshotCache.DEFAULT_MAX_STALE));
+
+        assertEquals("[0]", cache.get("Admissions").body());
+        assertEquals(1L, cache.getStats().stream().filter(entry -> entry.get("dataset").equals("Admissions")).findFirst().orElseThrow().get("hits"));
+        assertEquals("[1]", cache.get("Employees").body());
+    }
+}
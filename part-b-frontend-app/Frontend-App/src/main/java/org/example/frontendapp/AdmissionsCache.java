@@ -0,0 +1,107 @@
+package org.example.frontendapp;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Admissions already fetched, by patient ID, so going back to a recent patient needs no backend call. Entries are
+// served for up to the time to live after they were fetched; past the maximum number of entries, the patient least
+// recently looked up is dropped first.
+public class AdmissionsCache {
+
+    private final Map<String, Entry> entries;
+
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    // Guarded by entries
+    private long hits;
+    private long misses;
+
+    public AdmissionsCache(int maxEntries, Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        // Access-ordered, so the patient least recently looked up is dropped first
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > AdmissionsCache.this.maxEntries;
+            }
+        };
+    }
+
+    private record Entry(List<String[]> admissionData, long fetchedAt) {
+    }
+
+    // The cached admissions of a patient, or null if there are none or they have expired; counted as a hit or a miss
+    public List<String[]> get(String patientID) {
+        synchronized (entries) {
+            List<String[]> admissionData = fresh(patientID);
+            if (admissionData != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+            return admissionData;
+        }
+    }
+
+    // Whether a patient's admissions are cached and fresh, without counting as a lookup
+    public boolean contains(String patientID) {
+        synchronized (entries) {
+            return fresh(patientID) != null;
+        }
+    }
+
+    // Guarded by entries
+    private List<String[]> fresh(String patientID) {
+        Entry entry = entries.get(patientID);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.fetchedAt() >= ttlNanos) {
+            entries.remove(patientID);
+            return null;
+        }
+        return entry.admissionData();
+    }
+
+    public void put(String patientID, List<String[]> admissionData) {
+        synchronized (entries) {
+            entries.put(patientID, new Entry(List.copyOf(admissionData), System.nanoTime()));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public long hits() {
+        synchronized (entries) {
+            return hits;
+        }
+    }
+
+    public long lookups() {
+        synchronized (entries) {
+            return hits + misses;
+        }
+    }
+
+    // Fraction of lookups answered from the cache, 0 before the first
+    public double hitRate() {
+        synchronized (entries) {
+            return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        }
+    }
+
+    // Number of patients cached, including any that have expired but not yet been looked up
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
@@ -8,6 +8,7 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class AdmissionsForSpecificPatientGUI extends JFrame {
 
@@ -15,12 +16,16 @@ public class AdmissionsForSpecificPatientGUI extends JFrame {
     private JButton button;
     private JLabel patientIdLabel;
     private JLabel currentPatientIdLabel;
+    private JLabel statusLabel;
 
     private JTable table;
     private DefaultTableModel tableModel;
 
     private FrontendController frontendController;
 
+    // The search still waiting for the backend, if any; only touched on the event dispatch thread
+    private CompletableFuture<List<String[]>> search;
+
     public AdmissionsForSpecificPatientGUI() {
         setTitle("Admissions for Specific Patient"); // Adding title
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -82,6 +87,12 @@ public class AdmissionsForSpecificPatientGUI extends JFrame {
 
         add(contentPanel, BorderLayout.CENTER);
 
+        // Status bar showing how many searches were answered from the cache
+        statusLabel = new JLabel();
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 5));
+        updateStatus();
+        add(statusLabel, BorderLayout.SOUTH);
+
         pack();
         setLocationRelativeTo(null); // Center the window
         setVisible(true);
@@ -97,28 +108,57 @@ public class AdmissionsForSpecificPatientGUI extends JFrame {
                 return;
             }
 
-            // Simulate fetching data from backend
-            List<String[]> admissionData = FrontendController.fetchDataFromBackend(patientIDText);
-            if (admissionData != null) {
-                // Update current patient ID label
-                currentPatientIdLabel.setText("Current Patient ID: " + patientIDText);
-
-                // Clear existing data in the table
-                tableModel.setRowCount(0);
+            // A newer search replaces one still waiting for the backend
+            if (search != null) {
+                search.cancel(true);
+            }
 
-                for (String[] row : admissionData) {
-                    tableModel.addRow(row);
+            // Fetch off the event dispatch thread, so the window stays responsive meanwhile; recent patients come
+            // straight from the cache
+            CompletableFuture<List<String[]>> request = FrontendController.fetchAdmissions(patientIDText);
+            search = request;
+            updateStatus();
+            request.thenAccept(admissionData -> SwingUtilities.invokeLater(() -> {
+                if (search != request) {
+                    // Replaced by a newer search since
+                    return;
                 }
-            } else {
-                // Handle null data
-                JOptionPane.showMessageDialog(this, "No admissions found for patient: " + patientIDText, "No Admissions", JOptionPane.INFORMATION_MESSAGE);
-            }
+                search = null;
+                populateTable(patientIDText, admissionData);
+                if (admissionData != null) {
+                    // The next or previous patient is likely to be looked up next
+                    FrontendController.prefetchNeighbours(patientIDText);
+                }
+            }));
         } catch (NumberFormatException e) {
             // Handle parsing error
             JOptionPane.showMessageDialog(this, "Invalid Patient ID. Please enter a valid integer.", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
+    private void populateTable(String patientIDText, List<String[]> admissionData) {
+        if (admissionData != null) {
+            // Update current patient ID label
+            currentPatientIdLabel.setText("Current Patient ID: " + patientIDText);
+
+            // Clear existing data in the table
+            tableModel.setRowCount(0);
+
+            for (String[] row : admissionData) {
+                tableModel.addRow(row);
+            }
+        } else {
+            // Handle null data
+            JOptionPane.showMessageDialog(this, "No admissions found for patient: " + patientIDText, "No Admissions", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
+    private void updateStatus() {
+        AdmissionsCache cache = FrontendController.getAdmissionsCache();
+        statusLabel.setText(String.format("Cache: %d of %d searches answered locally (%.0f%% hit rate)",
+                cache.hits(), cache.lookups(), cache.hitRate() * 100));
+    }
+
     // Custom cell renderer for rendering italic text
     private class ItalicTableCellRenderer extends DefaultTableCellRenderer {
         public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
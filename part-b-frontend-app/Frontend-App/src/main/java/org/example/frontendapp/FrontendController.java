@@ -4,67 +4,232 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPInputStream;
 
 public class FrontendController {
 
+    private static final String DEFAULT_BASE_URL = "http://localhost:8080";
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    // Shared by every search, so connections to the backend are kept alive and reused
+    private static final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    // Root of the backend; set with -Dbackend.base-url=... or the BACKEND_BASE_URL environment variable
+    private static volatile String baseUrl = defaultBaseUrl();
+
+    private static String defaultBaseUrl() {
+        String configured = System.getProperty("backend.base-url", System.getenv("BACKEND_BASE_URL"));
+        return configured == null || configured.isBlank() ? DEFAULT_BASE_URL : configured;
+    }
+
+    // Searches already answered; sized with -Dadmissions.cache.max-entries=... and -Dadmissions.cache.ttl-seconds=...
+    private static final AdmissionsCache admissionsCache = new AdmissionsCache(
+            Integer.getInteger("admissions.cache.max-entries", 64),
+            Duration.ofSeconds(Integer.getInteger("admissions.cache.ttl-seconds", 60)));
+
+    // Whether the patients either side of each search are fetched in the background; off with -Dadmissions.prefetch=false
+    private static volatile boolean prefetchNeighbours = Boolean.parseBoolean(System.getProperty("admissions.prefetch", "true"));
+
+    // Prefetches still waiting for the backend, by patient ID, so each patient is only fetched once at a time
+    private static final Map<String, CompletableFuture<List<String[]>>> prefetches = new ConcurrentHashMap<>();
+
+    static String getBaseUrl() {
+        return baseUrl;
+    }
+
+    // Also empties the cache, which holds the previous backend's admissions
+    static void setBaseUrl(String baseUrl) {
+        FrontendController.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        admissionsCache.clear();
+    }
+
+    static void setPrefetchNeighbours(boolean prefetchNeighbours) {
+        FrontendController.prefetchNeighbours = prefetchNeighbours;
+    }
+
+    static AdmissionsCache getAdmissionsCache() {
+        return admissionsCache;
+    }
+
+    // The admissions of a patient from the cache if they were fetched recently, otherwise from the backend; as for
+    // fetchDataFromBackendAsync, completes with null if they could not be fetched, and failures are not cached
+    static CompletableFuture<List<String[]>> fetchAdmissions(String patientID) {
+        List<String[]> cached = admissionsCache.get(patientID);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<List<String[]>> prefetching = prefetches.get(patientID);
+        if (prefetching != null) {
+            // A dependent future, so cancelling this search leaves the prefetch to fill the cache
+            return prefetching.thenApply(admissionData -> admissionData);
+        }
+
+        // Cached before the returned future completes, so a search repeated straight afterwards is a hit
+        CompletableFuture<List<String[]>> request = fetchDataFromBackendAsync(patientID);
+        CompletableFuture<List<String[]>> admissionData = request.thenApply(rows -> {
+            cacheIfFetched(patientID, rows);
+            return rows;
+        });
+        // Cancelling a stale search still abandons its request
+        admissionData.whenComplete((rows, e) -> {
+            if (admissionData.isCancelled()) {
+                request.cancel(true);
+            }
+        });
+        return admissionData;
+    }
+
+    // Fetches the patients either side of patientID into the cache in the background, if prefetching is on; the
+    // future completes once they are cached or have failed
+    static CompletableFuture<Void> prefetchNeighbours(String patientID) {
+        if (!prefetchNeighbours) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long id;
+        try {
+            id = Long.parseLong(patientID);
+        } catch (NumberFormatException e) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<CompletableFuture<List<String[]>>> fetches = new ArrayList<>();
+        for (long neighbour : new long[]{id - 1, id + 1}) {
+            if (neighbour > 0) {
+                fetches.add(prefetch(String.valueOf(neighbour)));
+            }
+        }
+        return CompletableFuture.allOf(fetches.toArray(new CompletableFuture[0]));
+    }
+
+    private static CompletableFuture<List<String[]>> prefetch(String patientID) {
+        if (admissionsCache.contains(patientID)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<List<String[]>> request = new CompletableFuture<>();
+        CompletableFuture<List<String[]>> existing = prefetches.putIfAbsent(patientID, request);
+        if (existing != null) {
+            return existing;
+        }
+
+        fetchDataFromBackendAsync(patientID).whenComplete((admissionData, e) -> {
+            cacheIfFetched(patientID, admissionData);
+            prefetches.remove(patientID, request);
+            request.complete(admissionData);
+        });
+        return request;
+    }
+
+    private static void cacheIfFetched(String patientID, List<String[]> admissionData) {
+        if (admissionData != null) {
+            admissionsCache.put(patientID, admissionData);
+        }
+    }
+
+    // Blocks until the admissions arrive; null if they could not be fetched
     static List<String[]> fetchDataFromBackend(String patientID) {
-        List<String[]> admissionData = new ArrayList<>();
         try {
-            URL url = new URL("http://localhost:8080/Admission/" + patientID);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("Content-Type", "application/json");
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                StringBuilder response = new StringBuilder();
-                String inputLine;
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                in.close();
-
-                // Print the JSON response for inspection
-                System.out.println("JSON Response: " + response.toString());
-
-                // Process the JSON response and extract admission data
-                JSONArray admissions = new JSONArray(response.toString());
-                for (int i = 0; i < admissions.length(); i++) {
-                    JSONObject admission = admissions.getJSONObject(i);
-                    // Verify JSON structure
-                    if (admission.has("admissionId") && admission.has("admissionDate") && admission.has("dischargeDate")) {
-                        Integer admissionId = admission.getInt("admissionId");
-                        String admissionDate = admission.getString("admissionDate");
-                        String dischargeDate = admission.getString("dischargeDate");
-                        String admissionIdString = String.valueOf(admission.getInt("admissionId"));
-
-                        admissionData.add(new String[]{admissionIdString, admissionDate, dischargeDate});
-                    } else {
-                        // Handle missing data
-                        System.out.println("Missing data in JSON for admission: " + i);
-                    }
-                }
-
-                return admissionData;
-            } else {
-                // Handle HTTP error response
-                System.out.println("Error fetching data from backend: " + responseCode);
-                return null;
+            return fetchDataFromBackendAsync(patientID).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    // Fetches the admissions without blocking the caller. The future completes with null if the backend could not be
+    // reached, answered with an error or sent something other than admissions; cancelling it abandons the request.
+    static CompletableFuture<List<String[]>> fetchDataFromBackendAsync(String patientID) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(baseUrl + "/Admission/" + URLEncoder.encode(patientID, StandardCharsets.UTF_8)))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Accept", "application/json")
+                    // The backend gzips larger responses for clients that accept it
+                    .header("Accept-Encoding", "gzip")
+                    .GET()
+                    .build();
+        } catch (IllegalArgumentException e) {
+            // Base URL is not a valid URI
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<HttpResponse<byte[]>> response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        CompletableFuture<List<String[]>> admissionData = new CompletableFuture<>();
+        response.whenComplete((result, e) -> admissionData.complete(e == null ? toAdmissionData(result) : null));
+        admissionData.whenComplete((rows, e) -> {
+            if (admissionData.isCancelled()) {
+                response.cancel(true);
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+        });
+        return admissionData;
+    }
+
+    private static List<String[]> toAdmissionData(HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            // Handle HTTP error response
+            System.out.println("Error fetching data from backend: " + response.statusCode());
             return null;
         }
 
+        try {
+            return parseAdmissions(new String(decode(response), StandardCharsets.UTF_8));
+        } catch (IOException | JSONException e) {
+            return null;
+        }
+    }
 
+    private static List<String[]> parseAdmissions(String body) throws JSONException {
+        // Process the JSON response and extract admission data
+        List<String[]> admissionData = new ArrayList<>();
+        JSONArray admissions = new JSONArray(body);
+        for (int i = 0; i < admissions.length(); i++) {
+            JSONObject admission = admissions.getJSONObject(i);
+            // Verify JSON structure
+            if (admission.has("admissionId") && admission.has("admissionDate") && admission.has("dischargeDate")) {
+                String admissionId = String.valueOf(admission.getInt("admissionId"));
+                String admissionDate = admission.getString("admissionDate");
+                String dischargeDate = admission.getString("dischargeDate");
+
+                admissionData.add(new String[]{admissionId, admissionDate, dischargeDate});
+            } else {
+                // Handle missing data
+                System.out.println("Missing data in JSON for admission: " + i);
+            }
+        }
+        return admissionData;
+    }
+
+    private static byte[] decode(HttpResponse<byte[]> response) throws IOException {
+        boolean gzipped = response.headers().firstValue("Content-Encoding").map("gzip"::equalsIgnoreCase).orElse(false);
+        if (!gzipped) {
+            return response.body();
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            return in.readAllBytes();
+        }
     }
+
     static List<String[]> parseJsonResponse(String jsonResponse) throws JSONException {
         List<String[]> admissionData = new ArrayList<>();
         JSONArray admissions = new JSONArray(jsonResponse);
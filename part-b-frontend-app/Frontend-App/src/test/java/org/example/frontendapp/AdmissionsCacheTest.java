@@ -0,0 +1,70 @@
+package org.example.frontendapp;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionsCacheTest {
+
+    private static final List<String[]> ADMISSIONS = List.<String[]>of(new String[]{"6", "2024-04-19T21:50:00", "0001-01-01T00:00:00"});
+
+    @Tag("unitTest")
+    @Test
+    void testRepeatLookupIsAHit() {
+        AdmissionsCache cache = new AdmissionsCache(4, Duration.ofMinutes(1));
+
+        assertNull(cache.get("5"));
+        cache.put("5", ADMISSIONS);
+
+        assertArrayEquals(ADMISSIONS.get(0), cache.get("5").get(0));
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.lookups());
+        assertEquals(0.5, cache.hitRate());
+    }
+
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testExpiredAdmissionsAreMisses() {
+        AdmissionsCache cache = new AdmissionsCache(4, Duration.ZERO);
+
+        cache.put("5", ADMISSIONS);
+
+        assertNull(cache.get("5"));
+        assertFalse(cache.contains("5"));
+        assertEquals(0, cache.size());
+    }
+
+    @Tag("unitTest")
+    @Tag("boundaryCase")
+    @Test
+    void testLeastRecentlyLookedUpPatientIsDropped() {
+        AdmissionsCache cache = new AdmissionsCache(2, Duration.ofMinutes(1));
+        cache.put("1", ADMISSIONS);
+        cache.put("2", ADMISSIONS);
+        cache.get("1");
+        cache.put("3", ADMISSIONS);
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.contains("1"));
+        assertFalse(cache.contains("2"));
+    }
+
+    @Tag("unitTest")
+    @Tag("cornerCase")
+    @Test
+    void testContainsIsNotCountedAsALookup() {
+        AdmissionsCache cache = new AdmissionsCache(4, Duration.ofMinutes(1));
+        cache.put("5", ADMISSIONS);
+
+        assertTrue(cache.contains("5"));
+        assertFalse(cache.contains("6"));
+
+        assertEquals(0, cache.lookups());
+        assertEquals(0.0, cache.hitRate());
+    }
+}
@@ -1,10 +1,25 @@
 package org.example.frontendapp;
 
+import com.sun.net.httpserver.HttpServer;
 import org.json.JSONException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -15,6 +30,12 @@ class FrontendControllerTest {
         FrontendController frontendController = new FrontendController();
     }
 
+    @AfterEach
+    void tearDown() {
+        FrontendController.setBaseUrl("http://localhost:8080");
+        FrontendController.setPrefetchNeighbours(true);
+    }
+
     @Tag("integrationTest")
     @Test
     void testFetchDataFromBackendIntegration() throws JSONException {
@@ -80,4 +101,201 @@ class FrontendControllerTest {
         assertNull(admissionData);
     }
 
+    @Tag("unitTest")
+    @Test
+    void testFetchDataFromBackendAsyncHTTPError() throws Exception {
+        String patientID = "-1";
+
+        List<String[]> admissionData = FrontendController.fetchDataFromBackendAsync(patientID).get(40, TimeUnit.SECONDS);
+
+        assertNull(admissionData);
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testFetchDataFromConfiguredBackendGzipped() throws Exception {
+        String jsonResponse = "[{\"admissionId\":6,\"admissionDate\":\"2024-04-19T21:50:00\",\"dischargeDate\":\"0001-01-01T00:00:00\"}]";
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/Admission/5", exchange -> {
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+                gzip.write(jsonResponse.getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, gzipped.size());
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(gzipped.toByteArray());
+            }
+        });
+        server.start();
+        try {
+            FrontendController.setBaseUrl("http://localhost:" + server.getAddress().getPort() + "/");
+
+            List<String[]> admissionData = FrontendController.fetchDataFromBackend("5");
+
+            assertNotNull(admissionData);
+            assertEquals(1, admissionData.size());
+            assertArrayEquals(new String[]{"6", "2024-04-19T21:50:00", "0001-01-01T00:00:00"}, admissionData.get(0));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // Edge case - a search replaced by a newer one is cancelled and never completes with rows
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testCancelledFetchIsAbandoned() throws Exception {
+        CountDownLatch requested = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/Admission/5", exchange -> {
+            requested.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+                exchange.sendResponseHeaders(200, 2);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write("[]".getBytes(StandardCharsets.UTF_8));
+                }
+            } catch (InterruptedException | IOException e) {
+                // The client has gone
+            }
+        });
+        server.start();
+        try {
+            FrontendController.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+
+            CompletableFuture<List<String[]>> stale = FrontendController.fetchDataFromBackendAsync("5");
+            assertTrue(requested.await(10, TimeUnit.SECONDS));
+            stale.cancel(true);
+            release.countDown();
+
+            assertTrue(stale.isCancelled());
+            assertNotNull(FrontendController.fetchDataFromBackend("5"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Tag("unitTest")
+    @Test
+    void testRepeatSearchIsAnsweredFromCache() throws Exception {
+        Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+        HttpServer server = startAdmissionsServer(requests);
+        try {
+            FrontendController.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+            FrontendController.setPrefetchNeighbours(false);
+            long hits = FrontendController.getAdmissionsCache().hits();
+
+            List<String[]> first = FrontendController.fetchAdmissions("5").get(10, TimeUnit.SECONDS);
+            List<String[]> second = FrontendController.fetchAdmissions("5").get(10, TimeUnit.SECONDS);
+
+            assertEquals(1, requests.get("/Admission/5").get());
+            assertArrayEquals(first.get(0), second.get(0));
+            assertEquals(hits + 1, FrontendController.getAdmissionsCache().hits());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // Edge case - failed searches are not cached, so the next attempt goes to the backend again
+    @Tag("unitTest")
+    @Tag("edgeCase")
+    @Test
+    void testFailedSearchIsNotCached() throws Exception {
+        Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+        HttpServer server = startAdmissionsServer(requests);
+        try {
+            FrontendController.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+            FrontendController.setPrefetchNeighbours(false);
+
+            assertNull(FrontendController.fetchAdmissions("404").get(10, TimeUnit.SECONDS));
+            assertNull(FrontendController.fetchAdmissions("404").get(10, TimeUnit.SECONDS));
+
+            assertEquals(2, requests.get("/Admission/404").get());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // Boundary case - the patients either side are prefetched, but there is no patient 0
+    @Tag("unitTest")
+    @Tag("boundaryCase")
+    @Test
+    void testNeighboursArePrefetched() throws Exception {
+        Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+        HttpServer server = startAdmissionsServer(requests);
+        try {
+            FrontendController.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+
+            FrontendController.prefetchNeighbours("1").get(10, TimeUnit.SECONDS);
+            List<String[]> admissionData = FrontendController.fetchAdmissions("2").get(10, TimeUnit.SECONDS);
+
+            assertNotNull(admissionData);
+            assertEquals(1, requests.get("/Admission/2").get());
+            assertFalse(requests.containsKey("/Admission/0"));
+            assertTrue(FrontendController.getAdmissionsCache().contains("2"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // Corner case - a cached search that is cancelled while waiting for the backend leaves nothing in the cache
+    @Tag("unitTest")
+    @Tag("cornerCase")
+    @Test
+    void testCancelledSearchIsNotCached() throws Exception {
+        CountDownLatch requested = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/Admission/7", exchange -> {
+            requested.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+                exchange.sendResponseHeaders(200, 2);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write("[]".getBytes(StandardCharsets.UTF_8));
+                }
+            } catch (InterruptedException | IOException e) {
+                // The client has gone
+            }
+        });
+        server.start();
+        try {
+            FrontendController.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+            FrontendController.setPrefetchNeighbours(false);
+
+            CompletableFuture<List<String[]>> stale = FrontendController.fetchAdmissions("7");
+            assertTrue(requested.await(10, TimeUnit.SECONDS));
+            stale.cancel(true);
+            release.countDown();
+
+            assertTrue(stale.isCancelled());
+            assertFalse(FrontendController.getAdmissionsCache().contains("7"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // Answers every patient with one admission, except patient 404 which is not found, counting requests by path
+    private static HttpServer startAdmissionsServer(Map<String, AtomicInteger> requests) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/Admission/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            requests.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+            if (path.endsWith("/404")) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = "[{\"admissionId\":6,\"admissionDate\":\"2024-04-19T21:50:00\",\"dischargeDate\":\"0001-01-01T00:00:00\"}]"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
 }